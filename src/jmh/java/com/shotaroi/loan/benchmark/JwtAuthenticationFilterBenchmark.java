@@ -0,0 +1,98 @@
+package com.shotaroi.loan.benchmark;
+
+import com.shotaroi.loan.common.Role;
+import com.shotaroi.loan.security.JwtAuthenticationFilter;
+import com.shotaroi.loan.security.JwtTokenProvider;
+import com.shotaroi.loan.security.SecurityUser;
+import com.shotaroi.loan.security.VerifiedTokenCache;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of authenticating a bearer token.
+ * {@code legacyFourParses} replays the previous filter (key rebuilt and signature verified four times);
+ * {@code filterSingleParse} runs the filter with caching disabled; {@code filterCached} is the steady
+ * state for a client that reuses its token.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-at-least-256-bits-for-hs256";
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private String token;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+    private JwtAuthenticationFilter uncachedFilter;
+    private JwtAuthenticationFilter cachedFilter;
+
+    @Setup
+    public void setUp() {
+        JwtTokenProvider provider = new JwtTokenProvider(SECRET, 3_600_000);
+        token = provider.createToken(42L, "bench@loan.local", Role.USER);
+        request = new MockHttpServletRequest("GET", "/api/loans/1");
+        request.addHeader("Authorization", "Bearer " + token);
+        response = new MockHttpServletResponse();
+        uncachedFilter = new JwtAuthenticationFilter(new VerifiedTokenCache(provider, new SimpleMeterRegistry(), 0));
+        cachedFilter = new JwtAuthenticationFilter(new VerifiedTokenCache(provider, new SimpleMeterRegistry(), 10_000));
+    }
+
+    @Benchmark
+    public Authentication legacyFourParses() {
+        legacyClaims(token);
+        Long customerId = legacyClaims(token).get("customerId", Long.class);
+        String email = legacyClaims(token).getSubject();
+        Role role = Role.valueOf(legacyClaims(token).get("role", String.class));
+        SecurityUser user = new SecurityUser(customerId, email, "", role);
+        var authentication = new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        return takeAuthentication();
+    }
+
+    @Benchmark
+    public Authentication filterSingleParse() throws Exception {
+        uncachedFilter.doFilter(request, response, NO_OP_CHAIN);
+        return takeAuthentication();
+    }
+
+    @Benchmark
+    public Authentication filterCached() throws Exception {
+        cachedFilter.doFilter(request, response, NO_OP_CHAIN);
+        return takeAuthentication();
+    }
+
+    private static Authentication takeAuthentication() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        SecurityContextHolder.clearContext();
+        return authentication;
+    }
+
+    /** The pre-cache JwtTokenProvider.getClaims: a new key and parser on every call. */
+    private static Claims legacyClaims(String token) {
+        byte[] keyBytes = SECRET.getBytes(StandardCharsets.UTF_8);
+        return Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(keyBytes))
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+}
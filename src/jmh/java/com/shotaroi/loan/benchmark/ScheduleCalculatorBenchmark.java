@@ -0,0 +1,58 @@
+package com.shotaroi.loan.benchmark;
+
+import com.shotaroi.loan.schedule.ScheduleCalculator;
+import com.shotaroi.loan.schedule.ScheduleEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of generating one amortization schedule with each {@link ScheduleEngine}.
+ * Throughput gives calls/s, SampleTime gives latency percentiles; run with -prof gc for allocation rate.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class ScheduleCalculatorBenchmark {
+
+    @Param({"BIG_DECIMAL", "FIXED_POINT"})
+    private ScheduleEngine engine;
+
+    @Param({"ZERO", "TYPICAL", "FIFTY_PERCENT"})
+    private RateCase rateCase;
+
+    @Param({"3", "60", "360"})
+    private int termMonths;
+
+    private BigDecimal principal;
+    private LocalDate startDate;
+
+    @Setup
+    public void setUp() {
+        principal = new BigDecimal("250000.00");
+        startDate = LocalDate.of(2025, 1, 31);
+    }
+
+    @Benchmark
+    public List<ScheduleCalculator.ScheduleInstallment> generateSchedule() {
+        return engine.generateSchedule(principal, rateCase.annualRate, termMonths, startDate);
+    }
+
+    public enum RateCase {
+        ZERO("0.00000000"),
+        TYPICAL("0.05250000"),
+        FIFTY_PERCENT("0.50000000");
+
+        private final BigDecimal annualRate;
+
+        RateCase(String annualRate) {
+            this.annualRate = new BigDecimal(annualRate);
+        }
+    }
+}
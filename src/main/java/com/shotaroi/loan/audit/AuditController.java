@@ -3,9 +3,9 @@ package com.shotaroi.loan.audit;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Instant;
 import java.util.List;
 
 @RestController
@@ -13,23 +13,27 @@ import java.util.List;
 @Tag(name = "Admin - Audit")
 public class AuditController {
 
-    private final AuditLogRepository auditLogRepository;
+    private final AuditQueryService auditQueryService;
 
-    public AuditController(AuditLogRepository auditLogRepository) {
-        this.auditLogRepository = auditLogRepository;
+    public AuditController(AuditQueryService auditQueryService) {
+        this.auditQueryService = auditQueryService;
     }
 
     @GetMapping
-    @Operation(summary = "List audit logs (paginated, ADMIN)")
+    @Operation(summary = "List audit logs newest first (keyset paginated, ADMIN); pass nextCursor back as cursor")
     public ResponseEntity<AuditPageResponse> list(
-            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Long actorId,
+            @RequestParam(required = false) String action,
+            @RequestParam(required = false) Instant from,
+            @RequestParam(required = false) Instant to,
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size,
-            @AuthenticationPrincipal com.shotaroi.loan.security.SecurityUser user) {
+            @RequestParam(defaultValue = "NONE") AuditQueryService.TotalMode total) {
 
-        var pageable = org.springframework.data.domain.PageRequest.of(page, size);
-        var auditPage = auditLogRepository.findAllByOrderByCreatedAtDesc(pageable);
+        var page = auditQueryService.search(
+                new AuditQueryService.Filter(actorId, action, from, to), cursor, size, total);
 
-        List<AuditItemResponse> items = auditPage.getContent().stream()
+        List<AuditItemResponse> items = page.content().stream()
                 .map(a -> new AuditItemResponse(
                         a.getId(),
                         a.getActorCustomerId(),
@@ -38,14 +42,11 @@ public class AuditController {
                         a.getCreatedAt().toString()))
                 .toList();
 
-        return ResponseEntity.ok(new AuditPageResponse(
-                items,
-                auditPage.getTotalElements(),
-                auditPage.getTotalPages(),
-                auditPage.getNumber()));
+        return ResponseEntity.ok(new AuditPageResponse(items, page.nextCursor(), page.total(), page.totalEstimated()));
     }
 
     public record AuditItemResponse(Long id, Long actorCustomerId, String action, String details, String createdAt) {}
 
-    public record AuditPageResponse(List<AuditItemResponse> content, long totalElements, int totalPages, int number) {}
+    public record AuditPageResponse(List<AuditItemResponse> content, String nextCursor, Long total,
+                                    boolean totalEstimated) {}
 }
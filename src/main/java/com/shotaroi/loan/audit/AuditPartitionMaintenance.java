@@ -0,0 +1,263 @@
+package com.shotaroi.loan.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps audit_log's monthly partitions (see V10) ahead of the clock and retires old ones.
+ * Partitions are created {@code monthsAhead} months in advance; rows that already landed in the
+ * default partition for that month are moved in first. Months older than {@code retentionMonths} are
+ * exported to {@code <archiveDir>/audit_log_yYYYYmMM.ndjson.gz}, then detached and dropped in the same
+ * transaction, so a failed export leaves the partition in place for the next run. Expired rows in the default
+ * partition are given their month's partition first and archived with it.
+ */
+@Component
+public class AuditPartitionMaintenance implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionMaintenance.class);
+
+    /** pg advisory lock key, so only one instance changes partitions at a time. */
+    private static final long LOCK_KEY = 0x6175646974L;
+    private static final Pattern MONTHLY_PARTITION = Pattern.compile("audit_log_y(\\d{4})m(\\d{2})");
+    private static final int EXPORT_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final Path archiveDir;
+
+    private final Counter partitionsCreated;
+    private final Counter partitionsArchived;
+    private final Counter rowsArchived;
+
+    public AuditPartitionMaintenance(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     ObjectMapper objectMapper,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.audit.partitions.months-ahead:3}") int monthsAhead,
+                                     @Value("${app.audit.partitions.retention-months:12}") int retentionMonths,
+                                     @Value("${app.audit.partitions.archive-dir:audit-archive}") Path archiveDir) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.archiveDir = archiveDir;
+
+        this.partitionsCreated = Counter.builder("audit.partitions.created").register(meterRegistry);
+        this.partitionsArchived = Counter.builder("audit.partitions.archived")
+                .description("Monthly partitions exported, detached and dropped")
+                .register(meterRegistry);
+        this.rowsArchived = Counter.builder("audit.partitions.archived.rows").register(meterRegistry);
+    }
+
+    /** Makes sure the coming months exist before the first audit entry of the day is written. */
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            createPartitions(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Could not create audit_log partitions at startup", e);
+        }
+    }
+
+    @Scheduled(cron = "${app.audit.partitions.cron:0 30 0 * * *}")
+    public void scheduledRun() {
+        LocalDate today = LocalDate.now();
+        try {
+            createPartitions(today);
+            archiveExpired(today);
+        } catch (RuntimeException e) {
+            log.error("Audit partition maintenance failed; it will retry on the next run", e);
+        }
+    }
+
+    /**
+     * Creates the partitions for the month of {@code today} through {@code monthsAhead} months later.
+     * Returns the names of the partitions that did not exist yet.
+     */
+    public List<String> createPartitions(LocalDate today) {
+        YearMonth first = YearMonth.from(today);
+        List<String> created = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = first.plusMonths(i);
+            if (Boolean.TRUE.equals(transactionTemplate.execute(status -> createPartition(month)))) {
+                created.add(partitionName(month));
+            }
+        }
+        return created;
+    }
+
+    /**
+     * Archives every monthly partition that ended more than {@code retentionMonths} months before the
+     * month of {@code today}. Expired rows still in the default partition (written before their month's
+     * partition existed, or after it was archived) first get a partition of their own, so they are archived
+     * and dropped the same way. Returns the archive files written.
+     */
+    public List<Path> archiveExpired(LocalDate today) {
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(retentionMonths);
+        for (YearMonth month : expiredDefaultMonths(oldestKept)) {
+            transactionTemplate.execute(status -> createPartition(month));
+        }
+        List<Path> archived = new ArrayList<>();
+        for (YearMonth month : monthlyPartitions()) {
+            if (month.isBefore(oldestKept)) {
+                transactionTemplate.execute(status -> archive(month)).ifPresent(archived::add);
+            }
+        }
+        return archived;
+    }
+
+    private boolean createPartition(YearMonth month) {
+        String name = partitionName(month);
+        if (!tryLock() || jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name)) {
+            return false;
+        }
+        // Attaching checks the default partition for rows in the new range, so move those first
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE audit_log INCLUDING DEFAULTS)");
+        int moved = jdbcTemplate.update("""
+                WITH moved AS (
+                    DELETE FROM audit_log_default WHERE created_at >= ? AND created_at < ?
+                    RETURNING id, actor_customer_id, action, details, created_at)
+                INSERT INTO %s (id, actor_customer_id, action, details, created_at)
+                SELECT id, actor_customer_id, action, details, created_at FROM moved
+                """.formatted(name),
+                month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+        jdbcTemplate.execute("ALTER TABLE audit_log ATTACH PARTITION %s FOR VALUES FROM ('%s') TO ('%s')"
+                .formatted(name, month.atDay(1), month.plusMonths(1).atDay(1)));
+        partitionsCreated.increment();
+        log.info("Created audit_log partition {} ({} rows moved from the default partition)", name, moved);
+        return true;
+    }
+
+    private Optional<Path> archive(YearMonth month) {
+        if (!tryLock()) {
+            return Optional.empty();
+        }
+        String name = partitionName(month);
+        AtomicLong rows = new AtomicLong();
+        Path target;
+        try {
+            Files.createDirectories(archiveDir);
+            target = archiveTarget(name);
+            Path partial = target.resolveSibling(target.getFileName() + ".part");
+            try (OutputStream file = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)));
+                 SequenceWriter out = objectMapper.writerFor(ArchivedEntry.class)
+                         .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                         .withRootValueSeparator("\n")
+                         .writeValues(file)) {
+                // Forward-only cursor: the partition is streamed, never held in memory
+                jdbcTemplate.query(con -> {
+                    var ps = con.prepareStatement("SELECT id, actor_customer_id, action, details, created_at FROM "
+                            + name + " ORDER BY created_at, id");
+                    ps.setFetchSize(EXPORT_FETCH_SIZE);
+                    return ps;
+                }, rs -> {
+                    try {
+                        out.write(new ArchivedEntry(rs.getLong("id"),
+                                rs.getObject("actor_customer_id", Long.class),
+                                rs.getString("action"),
+                                rs.getString("details"),
+                                rs.getObject("created_at", OffsetDateTime.class).toInstant()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows.incrementAndGet();
+                });
+            }
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive " + name, e);
+        }
+
+        jdbcTemplate.execute("ALTER TABLE audit_log DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        partitionsArchived.increment();
+        rowsArchived.increment(rows.get());
+        log.info("Archived audit_log partition {}: {} rows to {}", name, rows.get(), target);
+        return Optional.of(target);
+    }
+
+    /*
+     * A month archived once can be archived again when rows for it turn up in the default partition later;
+     * the later archives get a numbered name instead of replacing the earlier file.
+     */
+    private Path archiveTarget(String name) {
+        Path target = archiveDir.resolve(name + ".ndjson.gz");
+        for (int n = 2; Files.exists(target); n++) {
+            target = archiveDir.resolve(name + "-" + n + ".ndjson.gz");
+        }
+        return target;
+    }
+
+    private List<YearMonth> expiredDefaultMonths(YearMonth oldestKept) {
+        return jdbcTemplate.queryForList("""
+                SELECT DISTINCT date_trunc('month', created_at)::date FROM audit_log_default
+                WHERE created_at < ?
+                ORDER BY 1
+                """, LocalDate.class, oldestKept.atDay(1).atStartOfDay()).stream()
+                .map(YearMonth::from)
+                .toList();
+    }
+
+    private List<YearMonth> monthlyPartitions() {
+        List<String> names = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'audit_log'::regclass
+                """, String.class);
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : names) {
+            Matcher m = MONTHLY_PARTITION.matcher(name);
+            if (m.matches()) {
+                months.add(YearMonth.of(Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))));
+            }
+        }
+        months.sort(null);
+        return months;
+    }
+
+    private boolean tryLock() {
+        return Boolean.TRUE.equals(
+                jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, LOCK_KEY));
+    }
+
+    static String partitionName(YearMonth month) {
+        return "audit_log_y%04dm%02d".formatted(month.getYear(), month.getMonthValue());
+    }
+
+    record ArchivedEntry(long id, Long actorCustomerId, String action, String details, Instant createdAt) {}
+}
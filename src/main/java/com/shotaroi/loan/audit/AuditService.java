@@ -1,35 +1,51 @@
 package com.shotaroi.loan.audit;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
 @Service
 public class AuditService {
 
     private static final Logger log = LoggerFactory.getLogger(AuditService.class);
+    private static final String WRITE_DESCRIPTION =
+            "Caller time per audit entry: queueing it (async, including overflow handling) or inserting it (sync)";
 
     private final AuditLogRepository auditLogRepository;
+    private final AuditWriter auditWriter;
 
-    public AuditService(AuditLogRepository auditLogRepository) {
+    private final Timer submitTimer;
+    private final Timer syncTimer;
+
+    public AuditService(AuditLogRepository auditLogRepository, AuditWriter auditWriter, MeterRegistry meterRegistry) {
         this.auditLogRepository = auditLogRepository;
+        this.auditWriter = auditWriter;
+        this.submitTimer = Timer.builder("audit.write")
+                .tag("mode", "async")
+                .description(WRITE_DESCRIPTION)
+                .register(meterRegistry);
+        this.syncTimer = Timer.builder("audit.write")
+                .tag("mode", "sync")
+                .description(WRITE_DESCRIPTION)
+                .register(meterRegistry);
     }
 
-    @Async
+    /**
+     * Queues the entry for the batched {@link AuditWriter}; returns without a database round trip.
+     */
     public void log(Long actorCustomerId, String action, String details) {
-        try {
-            AuditLog auditLog = new AuditLog(actorCustomerId, action, details);
-            auditLogRepository.save(auditLog);
-            log.debug("Audit: actor={}, action={}", actorCustomerId, action);
-        } catch (Exception e) {
-            log.error("Failed to write audit log: {}", e.getMessage());
-        }
+        submitTimer.record(() -> auditWriter.submit(actorCustomerId, action, details));
+        log.debug("Audit: actor={}, action={}", actorCustomerId, action);
     }
 
+    /**
+     * Writes the entry in the caller's transaction; use only where the row must exist before returning.
+     */
     public void logSync(Long actorCustomerId, String action, String details) {
         AuditLog auditLog = new AuditLog(actorCustomerId, action, details);
-        auditLogRepository.save(auditLog);
+        syncTimer.record(() -> auditLogRepository.save(auditLog));
         log.debug("Audit: actor={}, action={}", actorCustomerId, action);
     }
 }
@@ -0,0 +1,277 @@
+package com.shotaroi.loan.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffers audit entries in a bounded queue and writes them from one dedicated thread with JDBC batch
+ * inserts, flushing when {@code batchSize} entries are waiting or {@code flushInterval} has passed.
+ * When the queue is full the {@link OverflowPolicy} decides whether the caller waits, writes the entry
+ * itself, or drops it. On shutdown the queue is drained before the data source goes away.
+ */
+@Component
+public class AuditWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditWriter.class);
+
+    private static final long STOP_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    static final String INSERT_SQL =
+            "INSERT INTO audit_log (actor_customer_id, action, details, created_at) VALUES (?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<AuditEntry> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration offerTimeout;
+    private final Duration shutdownTimeout;
+
+    private final Timer flushTimer;
+    private final DistributionSummary batchSizes;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter callerWrites;
+    private final Counter failures;
+
+    private volatile Thread flusher;
+    private volatile boolean running;
+
+    public AuditWriter(JdbcTemplate jdbcTemplate,
+                       MeterRegistry meterRegistry,
+                       @Value("${app.audit.queue-capacity:10000}") int queueCapacity,
+                       @Value("${app.audit.batch-size:200}") int batchSize,
+                       @Value("${app.audit.flush-interval:200ms}") Duration flushInterval,
+                       @Value("${app.audit.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+                       @Value("${app.audit.offer-timeout:100ms}") Duration offerTimeout,
+                       @Value("${app.audit.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeout = offerTimeout;
+        this.shutdownTimeout = shutdownTimeout;
+
+        Gauge.builder("audit.queue.depth", queue, BlockingQueue::size)
+                .description("Audit entries waiting to be written")
+                .register(meterRegistry);
+        this.flushTimer = Timer.builder("audit.flush")
+                .description("Time to write one batch of audit entries")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("audit.flush.batch.size")
+                .description("Audit entries per batch insert")
+                .register(meterRegistry);
+        this.written = Counter.builder("audit.entries.written").register(meterRegistry);
+        this.dropped = Counter.builder("audit.entries.dropped")
+                .description("Entries discarded because the queue was full")
+                .register(meterRegistry);
+        this.callerWrites = Counter.builder("audit.entries.caller.writes")
+                .description("Entries written on the caller's thread because the queue was full or stopped")
+                .register(meterRegistry);
+        this.failures = Counter.builder("audit.entries.failed")
+                .description("Entries that could not be written")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues an entry; never throws. Applies the overflow policy when the queue is full, and writes
+     * directly once the writer has been stopped.
+     */
+    public void submit(Long actorCustomerId, String action, String details) {
+        AuditEntry entry = new AuditEntry(actorCustomerId, action, details, Instant.now());
+        if (!running) {
+            writeInCaller(entry);
+            return;
+        }
+        if (queue.offer(entry)) {
+            if (!running) {
+                // stop() may have drained the queue between our check and the offer
+                drainInCaller();
+            }
+            return;
+        }
+        switch (overflowPolicy) {
+            case DROP -> {
+                dropped.increment();
+                log.warn("Audit queue full, dropping entry: action={}", action);
+            }
+            case CALLER_RUNS -> writeInCaller(entry);
+            case BLOCK -> {
+                try {
+                    if (!queue.offer(entry, offerTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                        writeInCaller(entry);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    writeInCaller(entry);
+                }
+            }
+        }
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "audit-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        // No interrupt: it could abort the flusher's connection checkout and lose the last batch.
+        // The flusher notices within one flush interval and drains the queue before exiting.
+        running = false;
+        try {
+            flusher.join(shutdownTimeout.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Anything the flusher could not finish in time is written here rather than lost
+        drainInCaller();
+        log.info("Audit writer stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Stops after the web server (which stops at a higher phase) so in-flight requests can still audit. */
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void flushLoop() {
+        List<AuditEntry> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            boolean interrupted = false;
+            try {
+                fill(batch);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                log.warn("Audit flusher interrupted, leaving the remaining entries to shutdown");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Collects up to {@code batchSize} entries, waiting at most {@code flushInterval} for a full batch.
+     * Waits in short slices so a stop() is noticed promptly even with a long interval.
+     */
+    private void fill(List<AuditEntry> batch) throws InterruptedException {
+        long deadline = System.nanoTime() + flushInterval.toNanos();
+        while (true) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long waitNanos = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || waitNanos <= 0 || !running) {
+                return;
+            }
+            AuditEntry entry = queue.poll(Math.min(waitNanos, STOP_CHECK_NANOS), TimeUnit.NANOSECONDS);
+            if (entry != null) {
+                batch.add(entry);
+            }
+        }
+    }
+
+    private void write(List<AuditEntry> batch) {
+        long start = System.nanoTime();
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), AuditWriter::bind);
+            written.increment(batch.size());
+        } catch (RuntimeException e) {
+            log.error("Audit batch of {} entries failed, writing one by one: {}", batch.size(), e.getMessage());
+            for (AuditEntry entry : batch) {
+                writeOne(entry);
+            }
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            batchSizes.record(batch.size());
+        }
+    }
+
+    private void drainInCaller() {
+        List<AuditEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        if (!remaining.isEmpty()) {
+            write(remaining);
+        }
+    }
+
+    private void writeInCaller(AuditEntry entry) {
+        callerWrites.increment();
+        writeOne(entry);
+    }
+
+    private void writeOne(AuditEntry entry) {
+        try {
+            jdbcTemplate.update(INSERT_SQL, ps -> bind(ps, entry));
+            written.increment();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.error("Failed to write audit log: action={}, error={}", entry.action(), e.getMessage());
+        }
+    }
+
+    private static void bind(PreparedStatement ps, AuditEntry entry) throws SQLException {
+        if (entry.actorCustomerId() == null) {
+            ps.setNull(1, Types.BIGINT);
+        } else {
+            ps.setLong(1, entry.actorCustomerId());
+        }
+        ps.setString(2, entry.action());
+        ps.setString(3, entry.details());
+        // Same binding Hibernate uses for Instant, so rows read back identically through AuditLog
+        ps.setObject(4, OffsetDateTime.ofInstant(entry.createdAt(), ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+    }
+
+    public enum OverflowPolicy {
+        /** Wait up to the offer timeout for space, then write on the caller's thread. */
+        BLOCK,
+        /** Write on the caller's thread immediately. */
+        CALLER_RUNS,
+        /** Discard the entry and count it. */
+        DROP
+    }
+
+    record AuditEntry(Long actorCustomerId, String action, String details, Instant createdAt) {}
+}
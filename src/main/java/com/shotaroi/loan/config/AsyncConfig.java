@@ -3,6 +3,11 @@ package com.shotaroi.loan.config;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 
+/**
+ * {@code @Async} runs on Spring Boot's {@code applicationTaskExecutor}: a bounded platform-thread pool
+ * ({@code spring.task.execution.pool.*}) by default, or a virtual thread per task capped by
+ * {@code spring.task.execution.simple.concurrency-limit} when {@code spring.threads.virtual.enabled} is set.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {}
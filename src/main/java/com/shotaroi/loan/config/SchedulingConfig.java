@@ -0,0 +1,12 @@
+package com.shotaroi.loan.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * {@code @Scheduled} jobs use Spring Boot's task scheduler: a single platform thread by default, or a
+ * virtual thread per run when {@code spring.threads.virtual.enabled} is set.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
@@ -0,0 +1,243 @@
+package com.shotaroi.loan.job;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BinaryOperator;
+
+/**
+ * Keyset-chunked, checkpointed run over ids for one batch job. A job supplies only what it does per chunk.
+ * <p>
+ * Ids are read in chunks of {@code chunkSize}; each wave of up to {@code parallelism} chunks runs on a bounded
+ * executor, and the checkpoint advances to the wave's last id once the whole wave is done, so an interrupted
+ * run resumes where it stopped. The chunk task must be idempotent for a date: after a failure the wave that
+ * was in flight runs again.
+ * <p>
+ * Meters, under the job's prefix: {@code .loans.processed}, {@code .failures}, {@code .chunk}, {@code .run},
+ * {@code .checkpoint.loan.id} and {@code .running}.
+ *
+ * @param <R> what one chunk reports, summed over a run with the combiner
+ */
+public class CheckpointedChunkRunner<R> {
+
+    private static final Logger log = LoggerFactory.getLogger(CheckpointedChunkRunner.class);
+
+    /** Next keyset page: up to {@code limit} ids after {@code afterId}, ascending. */
+    @FunctionalInterface
+    public interface IdPage {
+        List<Long> after(long afterId, int limit);
+    }
+
+    /** One chunk's work for {@code runDate}, in its own transaction. */
+    @FunctionalInterface
+    public interface ChunkTask<R> {
+        R process(List<Long> ids, LocalDate runDate);
+    }
+
+    private final String jobName;
+    private final JobCheckpointRepository checkpointRepository;
+    private final IdPage idPage;
+    private final ChunkTask<R> task;
+    private final R identity;
+    private final BinaryOperator<R> combiner;
+    private final int chunkSize;
+    private final int parallelism;
+    private final ThreadPoolTaskExecutor executor;
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong checkpointId = new AtomicLong();
+
+    private final Counter processed;
+    private final Counter failedRuns;
+    private final Timer chunkTimer;
+    private final Timer runTimer;
+
+    public CheckpointedChunkRunner(String jobName,
+                                   String meterPrefix,
+                                   JobCheckpointRepository checkpointRepository,
+                                   MeterRegistry meterRegistry,
+                                   IdPage idPage,
+                                   int chunkSize,
+                                   int parallelism,
+                                   R identity,
+                                   BinaryOperator<R> combiner,
+                                   ChunkTask<R> task) {
+        this.jobName = jobName;
+        this.checkpointRepository = checkpointRepository;
+        this.idPage = idPage;
+        this.task = task;
+        this.identity = identity;
+        this.combiner = combiner;
+        this.chunkSize = chunkSize;
+        this.parallelism = parallelism;
+
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setQueueCapacity(parallelism);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix(jobName + "-");
+        executor.initialize();
+
+        this.processed = Counter.builder(meterPrefix + ".loans.processed")
+                .description("ACTIVE loans processed by the job")
+                .register(meterRegistry);
+        this.failedRuns = Counter.builder(meterPrefix + ".failures")
+                .description("Runs stopped by an error; the next run resumes from the checkpoint")
+                .register(meterRegistry);
+        this.chunkTimer = Timer.builder(meterPrefix + ".chunk")
+                .description("Time to process one chunk of loans")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder(meterPrefix + ".run")
+                .description("Time of a complete run")
+                .register(meterRegistry);
+        Gauge.builder(meterPrefix + ".checkpoint.loan.id", checkpointId, AtomicLong::get)
+                .description("Last loan id covered by the current or last run")
+                .register(meterRegistry);
+        Gauge.builder(meterPrefix + ".running", running, r -> r.get() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs (or resumes) the job for {@code runDate}. Returns empty when a run is already in progress.
+     */
+    public Optional<Run<R>> run(LocalDate runDate) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("{} already running, skipping", jobName);
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(runInternal(runDate));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Runs every date that is due through {@code today}: first the checkpoint's date if its run did not
+     * complete, then each date after the last completed one. Without a checkpoint only {@code today} is run.
+     * Returns one run per date, oldest first; empty when nothing is due or a run is already in progress.
+     */
+    public List<Run<R>> catchUp(LocalDate today) {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("{} already running, skipping", jobName);
+            return List.of();
+        }
+        try {
+            LocalDate from = checkpointRepository.findById(jobName)
+                    .map(c -> c.isCompleted() ? c.getRunDate().plusDays(1) : c.getRunDate())
+                    .orElse(today);
+            List<Run<R>> runs = new ArrayList<>();
+            for (LocalDate date = from; !date.isAfter(today); date = date.plusDays(1)) {
+                runs.add(runInternal(date));
+            }
+            return runs;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public Optional<JobCheckpoint> getCheckpoint() {
+        return checkpointRepository.findById(jobName);
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private Run<R> runInternal(LocalDate runDate) {
+        JobCheckpoint checkpoint = checkpointRepository.findById(jobName)
+                .orElseGet(() -> new JobCheckpoint(jobName, runDate));
+        if (!checkpoint.isResumableFor(runDate)) {
+            checkpoint.restart(runDate);
+        }
+        long afterId = checkpoint.getLastId();
+        checkpointId.set(afterId);
+        log.info("{} started: runDate={}, resumeAfterId={}", jobName, runDate, afterId);
+
+        long startNanos = System.nanoTime();
+        long ids = 0;
+        R total = identity;
+
+        try {
+            while (true) {
+                List<List<Long>> wave = nextWave(afterId);
+                if (wave.isEmpty()) {
+                    break;
+                }
+
+                List<CompletableFuture<R>> futures = wave.stream()
+                        .map(chunk -> CompletableFuture.<R>supplyAsync(() -> process(chunk, runDate), executor))
+                        .toList();
+                CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+
+                for (int i = 0; i < wave.size(); i++) {
+                    ids += wave.get(i).size();
+                    total = combiner.apply(total, futures.get(i).join());
+                }
+                List<Long> lastChunk = wave.get(wave.size() - 1);
+                afterId = lastChunk.get(lastChunk.size() - 1);
+                checkpoint.advanceTo(afterId);
+                checkpoint = checkpointRepository.save(checkpoint);
+                checkpointId.set(afterId);
+            }
+        } catch (RuntimeException e) {
+            failedRuns.increment();
+            throw e;
+        }
+
+        checkpoint.complete();
+        checkpointRepository.save(checkpoint);
+
+        Duration duration = Duration.ofNanos(System.nanoTime() - startNanos);
+        runTimer.record(duration);
+        double idsPerSecond = ids / Math.max(duration.toNanos() / 1e9, 1e-9);
+        Run<R> run = new Run<>(runDate, ids, total, afterId, duration.toMillis(), idsPerSecond);
+        log.info("{} finished: runDate={}, loans={}, result={}, durationMs={}",
+                jobName, runDate, ids, total, run.durationMs());
+        return run;
+    }
+
+    private List<List<Long>> nextWave(long afterId) {
+        List<List<Long>> wave = new ArrayList<>(parallelism);
+        long cursor = afterId;
+        while (wave.size() < parallelism) {
+            List<Long> chunk = idPage.after(cursor, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            wave.add(chunk);
+            cursor = chunk.get(chunk.size() - 1);
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        return wave;
+    }
+
+    private R process(List<Long> chunk, LocalDate runDate) {
+        R result = chunkTimer.record(() -> task.process(chunk, runDate));
+        processed.increment(chunk.size());
+        return result;
+    }
+
+    public record Run<R>(LocalDate runDate, long loansProcessed, R total, long lastId, long durationMs,
+                         double loansPerSecond) {}
+}
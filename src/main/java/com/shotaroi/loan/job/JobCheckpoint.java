@@ -0,0 +1,81 @@
+package com.shotaroi.loan.job;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Restart point of a chunked batch job. Chunks are processed in ascending id order,
+ * so everything up to {@code lastId} is done for {@code runDate}.
+ */
+@Entity
+@Table(name = "job_checkpoint")
+public class JobCheckpoint {
+
+    @Id
+    @Column(name = "job_name", length = 100)
+    private String jobName;
+
+    @Column(name = "run_date", nullable = false)
+    private LocalDate runDate;
+
+    @Column(name = "last_id", nullable = false)
+    private Long lastId;
+
+    @Column(nullable = false)
+    private boolean completed;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    protected JobCheckpoint() {}
+
+    public JobCheckpoint(String jobName, LocalDate runDate) {
+        this.jobName = jobName;
+        this.runDate = runDate;
+        this.lastId = 0L;
+        this.completed = false;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public LocalDate getRunDate() {
+        return runDate;
+    }
+
+    public Long getLastId() {
+        return lastId;
+    }
+
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    /** True when an unfinished run for {@code date} can be resumed from {@link #getLastId()}. */
+    public boolean isResumableFor(LocalDate date) {
+        return !completed && runDate.equals(date);
+    }
+
+    public void restart(LocalDate runDate) {
+        this.runDate = runDate;
+        this.lastId = 0L;
+        this.completed = false;
+    }
+
+    public void advanceTo(long lastId) {
+        this.lastId = lastId;
+    }
+
+    public void complete() {
+        this.completed = true;
+    }
+}
@@ -0,0 +1,6 @@
+package com.shotaroi.loan.job;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, String> {
+}
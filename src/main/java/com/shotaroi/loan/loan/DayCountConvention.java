@@ -0,0 +1,39 @@
+package com.shotaroi.loan.loan;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Year fraction between two dates, by which an annual rate is multiplied to get the interest for the period.
+ */
+public enum DayCountConvention {
+
+    /** Actual days over a 365-day year, leap years included. */
+    ACT_365 {
+        @Override
+        public BigDecimal yearFraction(LocalDate from, LocalDate to) {
+            return BigDecimal.valueOf(ChronoUnit.DAYS.between(from, to))
+                    .divide(BigDecimal.valueOf(365), SCALE, RoundingMode.HALF_UP);
+        }
+    },
+
+    /**
+     * 30E/360: every month counts 30 days (the 31st counts as the 30th) over a 360-day year, so a month of
+     * daily accruals adds up to exactly one twelfth of the rate, like the monthly schedule.
+     */
+    THIRTY_360 {
+        @Override
+        public BigDecimal yearFraction(LocalDate from, LocalDate to) {
+            int days = 360 * (to.getYear() - from.getYear())
+                    + 30 * (to.getMonthValue() - from.getMonthValue())
+                    + Math.min(to.getDayOfMonth(), 30) - Math.min(from.getDayOfMonth(), 30);
+            return BigDecimal.valueOf(days).divide(BigDecimal.valueOf(360), SCALE, RoundingMode.HALF_UP);
+        }
+    };
+
+    static final int SCALE = 10;
+
+    public abstract BigDecimal yearFraction(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,208 @@
+package com.shotaroi.loan.loan;
+
+import com.shotaroi.loan.job.CheckpointedChunkRunner;
+import com.shotaroi.loan.job.JobCheckpoint;
+import com.shotaroi.loan.job.JobCheckpointRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Nightly interest accrual into {@code loan.accrued_interest} for all ACTIVE loans.
+ * <p>
+ * The schedule already bills each month's contractual interest in its installments, so the job accrues only
+ * what the schedule does not charge: interest on principal that is past due and still unpaid. The day's amount
+ * is that principal times the loan's annual rate times the {@link DayCountConvention} year fraction of the
+ * accrual date. The ledger keeps it unrounded; the loan is credited whole cents and carries the remainder.
+ * <p>
+ * Loans are walked by {@link CheckpointedChunkRunner}; each chunk locks its loans and then runs one set-based
+ * statement that writes the {@code interest_accrual} ledger rows and credits the loans. The ledger's
+ * (loan, accrual date) key makes a repeated or resumed run for the same date a no-op; the checkpoint only
+ * saves the work of re-reading chunks that are already done.
+ * <p>
+ * The nightly run catches up: it finishes a date whose run was interrupted and then accrues each date from
+ * the last completed one through today, so a failed or missed night is not skipped.
+ */
+@Component
+public class InterestAccrualJob {
+
+    static final String JOB_NAME = "interest-accrual";
+
+    private static final Logger log = LoggerFactory.getLogger(InterestAccrualJob.class);
+
+    /*
+     * Locks the chunk's ACTIVE loans in id order, as bulk ingestion and the delinquency sweep do, before
+     * anything is read. It is a statement of its own: the accrual statement then takes its snapshot after
+     * any payment on those loans has committed, so it never accrues on principal that was just paid.
+     */
+    private static final String LOCK_SQL =
+            "SELECT id FROM loan WHERE id = ANY(?) AND status = 'ACTIVE' ORDER BY id FOR UPDATE";
+
+    /*
+     * Past-due principal per loan in the chunk (installments pay interest first, so a row's paid principal is
+     * what it received beyond its interest), then the ledger insert at full scale, then the loan update for
+     * the rows that were actually inserted. The update adds the whole cents of the loan's carry plus the
+     * day's amount to accrued_interest and keeps the sub-cent rest as the new carry. Runs only on loans
+     * locked by LOCK_SQL; the version bump makes a writer holding a stale entity fail instead of overwriting.
+     */
+    private static final String ACCRUE_SQL = """
+            WITH params AS (
+                SELECT ?::date AS accrual_date, ?::varchar AS day_count, ?::numeric AS year_fraction),
+            arrears AS (
+                SELECT r.loan_id,
+                       sum(r.principal_due - GREATEST(COALESCE(r.amount_paid, 0) - r.interest_due, 0)) AS principal
+                FROM repayment_schedule r
+                CROSS JOIN params p
+                WHERE r.loan_id = ANY(?) AND r.status <> 'PAID' AND r.due_date < p.accrual_date
+                GROUP BY r.loan_id),
+            accrued AS (
+                INSERT INTO interest_accrual
+                    (loan_id, accrual_date, principal_base, annual_interest_rate, day_count, year_fraction, amount)
+                SELECT l.id, p.accrual_date, a.principal, l.annual_interest_rate, p.day_count, p.year_fraction,
+                       round(a.principal * l.annual_interest_rate * p.year_fraction, 10)
+                FROM arrears a
+                JOIN loan l ON l.id = a.loan_id
+                CROSS JOIN params p
+                WHERE l.status = 'ACTIVE'
+                  AND round(a.principal * l.annual_interest_rate * p.year_fraction, 10) > 0
+                ON CONFLICT (loan_id, accrual_date) DO NOTHING
+                RETURNING loan_id, amount),
+            credited AS (
+                SELECT a.loan_id, l.accrual_carry + a.amount AS total,
+                       trunc(l.accrual_carry + a.amount, 2) AS cents
+                FROM accrued a
+                JOIN loan l ON l.id = a.loan_id)
+            UPDATE loan l SET accrued_interest = l.accrued_interest + c.cents, accrual_carry = c.total - c.cents,
+                              version = l.version + 1
+            FROM credited c
+            WHERE l.id = c.loan_id
+            RETURNING l.id, c.cents""";
+
+    private final LoanHeaderCache loanHeaderCache;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DayCountConvention dayCount;
+    private final CheckpointedChunkRunner<ChunkResult> runner;
+
+    private final Counter loansAccrued;
+    private final Counter interestAccrued;
+
+    public InterestAccrualJob(LoanRepository loanRepository,
+                              LoanHeaderCache loanHeaderCache,
+                              JobCheckpointRepository checkpointRepository,
+                              JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.jobs.interest-accrual.day-count:ACT_365}") DayCountConvention dayCount,
+                              @Value("${app.jobs.interest-accrual.chunk-size:5000}") int chunkSize,
+                              @Value("${app.jobs.interest-accrual.parallelism:4}") int parallelism) {
+        this.loanHeaderCache = loanHeaderCache;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dayCount = dayCount;
+        this.runner = new CheckpointedChunkRunner<>(JOB_NAME, "interest.accrual.job", checkpointRepository,
+                meterRegistry, (afterId, limit) -> loanRepository.findActiveIdsAfter(afterId, Limit.of(limit)),
+                chunkSize, parallelism, ChunkResult.NONE, ChunkResult::plus, this::accrue);
+
+        this.loansAccrued = Counter.builder("interest.accrual.job.loans.accrued")
+                .description("Loans that accrued interest (ledger rows written)")
+                .register(meterRegistry);
+        this.interestAccrued = Counter.builder("interest.accrual.job.amount")
+                .description("Interest added to accrued_interest, summed across currencies")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.jobs.interest-accrual.cron:0 5 0 * * *}")
+    public void scheduledRun() {
+        try {
+            catchUp(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Interest accrual failed; the next run finishes the checkpoint's date and catches up", e);
+        }
+    }
+
+    /**
+     * Accrues every date that is due through {@code today}: first the checkpoint's date if its run did not
+     * complete, then each date after the last completed one. Without a checkpoint only {@code today} is run.
+     * Returns one result per date, oldest first; empty when nothing is due or a run is already in progress.
+     */
+    public List<RunResult> catchUp(LocalDate today) {
+        return runner.catchUp(today).stream().map(this::toResult).toList();
+    }
+
+    /**
+     * Accrues (or resumes accruing) the interest of the day ending on {@code accrualDate}.
+     * Returns empty when a run is already in progress.
+     */
+    public Optional<RunResult> run(LocalDate accrualDate) {
+        return runner.run(accrualDate).map(this::toResult);
+    }
+
+    public Optional<JobCheckpoint> getCheckpoint() {
+        return runner.getCheckpoint();
+    }
+
+    public boolean isRunning() {
+        return runner.isRunning();
+    }
+
+    private RunResult toResult(CheckpointedChunkRunner.Run<ChunkResult> run) {
+        return new RunResult(run.runDate(), dayCount, run.loansProcessed(), run.total().loansAccrued(),
+                run.total().amount(), run.lastId(), run.durationMs(), run.loansPerSecond());
+    }
+
+    private ChunkResult accrue(List<Long> loanIds, LocalDate accrualDate) {
+        BigDecimal yearFraction = dayCount.yearFraction(accrualDate.minusDays(1), accrualDate);
+        ChunkResult result = transactionTemplate.execute(status -> {
+            List<Long> locked = jdbcTemplate.queryForList(LOCK_SQL, Long.class,
+                    (Object) loanIds.toArray(Long[]::new));
+            if (locked.isEmpty()) {
+                return ChunkResult.NONE;
+            }
+            List<Accrual> accruals = jdbcTemplate.query(ACCRUE_SQL,
+                    (rs, rowNum) -> new Accrual(rs.getLong(1), rs.getBigDecimal(2)),
+                    accrualDate, dayCount.name(), yearFraction, locked.toArray(Long[]::new));
+            accruals.forEach(a -> loanHeaderCache.evictAfterCommit(a.loanId()));
+            return new ChunkResult(accruals.size(), accruals.stream()
+                    .map(Accrual::amount)
+                    .reduce(BigDecimal.ZERO.setScale(2), BigDecimal::add));
+        });
+        loansAccrued.increment(result.loansAccrued());
+        interestAccrued.increment(result.amount().doubleValue());
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    private record Accrual(long loanId, BigDecimal amount) {}
+
+    private record ChunkResult(long loansAccrued, BigDecimal amount) {
+
+        static final ChunkResult NONE = new ChunkResult(0, BigDecimal.ZERO.setScale(2));
+
+        ChunkResult plus(ChunkResult other) {
+            return new ChunkResult(loansAccrued + other.loansAccrued, amount.add(other.amount));
+        }
+    }
+
+    public record RunResult(LocalDate accrualDate, DayCountConvention dayCount, long loansProcessed,
+                            long loansAccrued, BigDecimal interestAccrued, long lastLoanId, long durationMs,
+                            double loansPerSecond) {}
+}
@@ -49,6 +49,10 @@ public class Loan {
     @Column(name = "accrued_interest", nullable = false, precision = 19, scale = 2)
     private BigDecimal accruedInterest;
 
+    @Version
+    @Column(nullable = false)
+    private Long version;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
@@ -119,6 +123,10 @@ public class Loan {
         return accruedInterest;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -131,6 +139,10 @@ public class Loan {
         this.accruedInterest = accruedInterest;
     }
 
+    public void setEndDate(LocalDate endDate) {
+        this.endDate = endDate;
+    }
+
     public void setStatus(LoanStatus status) {
         this.status = status;
     }
@@ -0,0 +1,96 @@
+package com.shotaroi.loan.loan;
+
+import com.shotaroi.loan.audit.AuditService;
+import com.shotaroi.loan.security.SecurityUser;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/loans")
+@Tag(name = "Admin - Loans")
+public class LoanAdminController {
+
+    private final LoanBookExportService exportService;
+    private final PortfolioAnalyticsService analyticsService;
+    private final InterestAccrualJob interestAccrualJob;
+    private final AuditService auditService;
+
+    public LoanAdminController(LoanBookExportService exportService,
+                               PortfolioAnalyticsService analyticsService,
+                               InterestAccrualJob interestAccrualJob,
+                               AuditService auditService) {
+        this.exportService = exportService;
+        this.analyticsService = analyticsService;
+        this.interestAccrualJob = interestAccrualJob;
+        this.auditService = auditService;
+    }
+
+    @GetMapping("/analytics")
+    @Operation(summary = "Portfolio balances by currency and status, and delinquency buckets (ADMIN)")
+    public ResponseEntity<PortfolioAnalyticsService.PortfolioAnalytics> analytics(
+            @RequestParam(required = false) LocalDate asOf,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+        return ResponseEntity.ok(analyticsService.analyze(asOf != null ? asOf : LocalDate.now(), refresh));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Stream a customer's loans with their installments and payments (format=ndjson|csv) (ADMIN)")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam Long customerId,
+            @RequestParam(defaultValue = "ndjson") String format,
+            @AuthenticationPrincipal SecurityUser user) {
+
+        var exportFormat = LoanBookExportService.Format.of(format);
+        Long adminId = user.getId();
+        // The body runs on the async executor after this method returns; the rows are read there
+        StreamingResponseBody body = out -> {
+            long records = exportService.export(customerId, exportFormat, out);
+            auditService.log(adminId, "LOAN_BOOK_EXPORTED",
+                    "customerId=%d, format=%s, records=%d".formatted(customerId, exportFormat, records));
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"loans-%d.%s\"".formatted(customerId, exportFormat.fileExtension()))
+                .body(body);
+    }
+
+    @PostMapping("/interest-accrual")
+    @Operation(summary = "Run or resume interest accrual for a date (default today) over all ACTIVE loans (ADMIN)")
+    public ResponseEntity<InterestAccrualJob.RunResult> runInterestAccrual(
+            @RequestParam(required = false) LocalDate date,
+            @AuthenticationPrincipal SecurityUser user) {
+        var result = interestAccrualJob.run(date != null ? date : LocalDate.now());
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        auditService.log(user.getId(), "INTEREST_ACCRUAL_RUN",
+                "accrualDate=%s, loans=%d, loansAccrued=%d, amount=%s".formatted(result.get().accrualDate(),
+                        result.get().loansProcessed(), result.get().loansAccrued(), result.get().interestAccrued()));
+        return ResponseEntity.ok(result.get());
+    }
+
+    @GetMapping("/interest-accrual")
+    @Operation(summary = "Interest accrual progress (ADMIN)")
+    public ResponseEntity<InterestAccrualStatusResponse> interestAccrualStatus() {
+        var checkpoint = interestAccrualJob.getCheckpoint();
+        return ResponseEntity.ok(new InterestAccrualStatusResponse(
+                interestAccrualJob.isRunning(),
+                checkpoint.map(c -> c.getRunDate().toString()).orElse(null),
+                checkpoint.map(c -> c.getLastId()).orElse(null),
+                checkpoint.map(c -> c.isCompleted()).orElse(false),
+                checkpoint.map(c -> c.getUpdatedAt().toString()).orElse(null)));
+    }
+
+    public record InterestAccrualStatusResponse(boolean running, String accrualDate, Long lastLoanId,
+                                                boolean completed, String updatedAt) {}
+}
@@ -0,0 +1,277 @@
+package com.shotaroi.loan.loan;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.annotation.JsonTypeName;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shotaroi.loan.common.exception.ValidationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streams a customer's loan book (each loan, then its installments, then its payments, loans in id order)
+ * from a single forward-only cursor. Rows are written as they are fetched, {@code fetchSize} at a time, so
+ * memory does not grow with the size of the book. The cursor needs a transaction, which holds one pooled
+ * connection until the last row has been written.
+ */
+@Service
+public class LoanBookExportService {
+
+    /*
+     * The lateral subquery sorts one loan's rows at a time; the nested loop keeps the loans in id order,
+     * so nothing book-sized is sorted. Columns are the union of the three record types; the first
+     * branch types them, since UNION resolves column types pairwise.
+     */
+    private static final String EXPORT_SQL = """
+            SELECT l.id AS loan_id, r.*
+            FROM (SELECT id FROM loan WHERE customer_id = ? ORDER BY id) l
+            CROSS JOIN LATERAL (
+                SELECT 0 AS kind, 0::bigint AS seq, ln.status, ln.currency, ln.principal, ln.annual_interest_rate,
+                       ln.term_months, ln.outstanding_principal, ln.accrued_interest, ln.start_date, ln.end_date,
+                       NULL::date AS due_date, NULL::numeric AS principal_due, NULL::numeric AS interest_due,
+                       NULL::numeric AS total_due, NULL::numeric AS amount_paid, NULL::numeric AS amount,
+                       NULL::date AS payment_date, NULL::varchar AS reference, NULL::numeric AS allocated_to_interest,
+                       NULL::numeric AS allocated_to_principal, NULL::timestamp AS created_at
+                FROM loan ln WHERE ln.id = l.id
+                UNION ALL
+                SELECT 1, s.installment_number, s.status, NULL, NULL, NULL, NULL, NULL, NULL, NULL, NULL,
+                       s.due_date, s.principal_due, s.interest_due, s.total_due, s.amount_paid,
+                       NULL, NULL, NULL, NULL, NULL, NULL
+                FROM repayment_schedule s WHERE s.loan_id = l.id
+                UNION ALL
+                SELECT 2, p.id, NULL, p.currency, NULL, NULL, NULL, NULL, NULL, NULL, NULL,
+                       NULL, NULL, NULL, NULL, NULL,
+                       p.amount, p.payment_date, p.reference, p.allocated_to_interest, p.allocated_to_principal,
+                       p.created_at
+                FROM payment p WHERE p.loan_id = l.id
+                ORDER BY kind, seq
+            ) r
+            """;
+
+    static final String CSV_HEADER = "type,loanId,status,currency,principal,annualInterestRate,termMonths,"
+            + "outstandingPrincipal,accruedInterest,startDate,endDate,installmentNumber,dueDate,principalDue,"
+            + "interestDue,totalDue,amountPaid,paymentId,amount,paymentDate,reference,allocatedToInterest,"
+            + "allocatedToPrincipal,createdAt";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public LoanBookExportService(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 ObjectMapper objectMapper,
+                                 @Value("${app.loans.export.fetch-size:500}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /** Writes the customer's loan book to {@code out} and returns the number of records written. */
+    public long export(long customerId, Format format, OutputStream out) throws IOException {
+        try (RecordWriter writer = format == Format.CSV ? new CsvWriter(out) : new NdjsonWriter(out)) {
+            AtomicLong records = new AtomicLong();
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(con -> {
+                var ps = con.prepareStatement(EXPORT_SQL);
+                // With autocommit off (the transaction), pgjdbc fetches this many rows per round trip
+                ps.setFetchSize(fetchSize);
+                ps.setLong(1, customerId);
+                return ps;
+            }, rs -> {
+                try {
+                    writer.write(toRecord(rs));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                records.incrementAndGet();
+            }));
+            return records.get();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ExportRecord toRecord(ResultSet rs) throws SQLException {
+        long loanId = rs.getLong("loan_id");
+        return switch (rs.getInt("kind")) {
+            case 0 -> new LoanRecord(loanId,
+                    rs.getString("status"),
+                    rs.getString("currency"),
+                    rs.getBigDecimal("principal"),
+                    rs.getBigDecimal("annual_interest_rate"),
+                    rs.getInt("term_months"),
+                    rs.getBigDecimal("outstanding_principal"),
+                    rs.getBigDecimal("accrued_interest"),
+                    rs.getObject("start_date", LocalDate.class),
+                    rs.getObject("end_date", LocalDate.class));
+            case 1 -> new InstallmentRecord(loanId,
+                    rs.getInt("seq"),
+                    rs.getString("status"),
+                    rs.getObject("due_date", LocalDate.class),
+                    rs.getBigDecimal("principal_due"),
+                    rs.getBigDecimal("interest_due"),
+                    rs.getBigDecimal("total_due"),
+                    rs.getBigDecimal("amount_paid"));
+            case 2 -> new PaymentRecord(loanId,
+                    rs.getLong("seq"),
+                    rs.getString("currency"),
+                    rs.getBigDecimal("amount"),
+                    rs.getObject("payment_date", LocalDate.class),
+                    rs.getString("reference"),
+                    rs.getBigDecimal("allocated_to_interest"),
+                    rs.getBigDecimal("allocated_to_principal"),
+                    rs.getObject("created_at", OffsetDateTime.class).toInstant());
+            default -> throw new IllegalStateException("Unknown export row kind " + rs.getInt("kind"));
+        };
+    }
+
+    private interface RecordWriter extends AutoCloseable {
+
+        void write(ExportRecord record) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RecordWriter {
+
+        private final SequenceWriter out;
+
+        NdjsonWriter(OutputStream stream) throws IOException {
+            this.out = objectMapper.writerFor(ExportRecord.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                    .withRootValueSeparator("\n")
+                    .writeValues(stream);
+        }
+
+        @Override
+        public void write(ExportRecord record) throws IOException {
+            out.write(record);
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    private static final class CsvWriter implements RecordWriter {
+
+        private final Writer out;
+
+        CsvWriter(OutputStream stream) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+
+        @Override
+        public void write(ExportRecord record) throws IOException {
+            // One wide row per record; columns that belong to the other record types stay empty
+            Object[] row = switch (record) {
+                case LoanRecord l -> new Object[]{"loan", l.loanId(), l.status(), l.currency(), l.principal(),
+                        l.annualInterestRate(), l.termMonths(), l.outstandingPrincipal(), l.accruedInterest(),
+                        l.startDate(), l.endDate(), null, null, null, null, null, null, null, null, null, null,
+                        null, null, null};
+                case InstallmentRecord i -> new Object[]{"installment", i.loanId(), i.status(), null, null, null,
+                        null, null, null, null, null, i.installmentNumber(), i.dueDate(), i.principalDue(),
+                        i.interestDue(), i.totalDue(), i.amountPaid(), null, null, null, null, null, null, null};
+                case PaymentRecord p -> new Object[]{"payment", p.loanId(), null, p.currency(), null, null, null,
+                        null, null, null, null, null, null, null, null, null, null, p.paymentId(), p.amount(),
+                        p.paymentDate(), p.reference(), p.allocatedToInterest(), p.allocatedToPrincipal(),
+                        p.createdAt()};
+            };
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                if (row[i] != null) {
+                    out.write(escape(row[i] instanceof BigDecimal d ? d.toPlainString() : row[i].toString()));
+                }
+            }
+            out.write('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+        static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0
+                    && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+    }
+
+    public enum Format {
+        NDJSON("application/x-ndjson"),
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String fileExtension() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+
+        public static Format of(String value) {
+            for (Format format : values()) {
+                if (format.name().equalsIgnoreCase(value)) {
+                    return format;
+                }
+            }
+            throw new ValidationException("Unsupported export format: " + value);
+        }
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, property = "type")
+    public sealed interface ExportRecord permits LoanRecord, InstallmentRecord, PaymentRecord {}
+
+    @JsonTypeName("loan")
+    public record LoanRecord(long loanId, String status, String currency, BigDecimal principal,
+                             BigDecimal annualInterestRate, int termMonths, BigDecimal outstandingPrincipal,
+                             BigDecimal accruedInterest, LocalDate startDate, LocalDate endDate)
+            implements ExportRecord {}
+
+    @JsonTypeName("installment")
+    public record InstallmentRecord(long loanId, int installmentNumber, String status, LocalDate dueDate,
+                                    BigDecimal principalDue, BigDecimal interestDue, BigDecimal totalDue,
+                                    BigDecimal amountPaid) implements ExportRecord {}
+
+    @JsonTypeName("payment")
+    public record PaymentRecord(long loanId, long paymentId, String currency, BigDecimal amount,
+                                LocalDate paymentDate, String reference, BigDecimal allocatedToInterest,
+                                BigDecimal allocatedToPrincipal, Instant createdAt) implements ExportRecord {}
+}
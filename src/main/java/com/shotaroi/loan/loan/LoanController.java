@@ -3,6 +3,8 @@ package com.shotaroi.loan.loan;
 import com.shotaroi.loan.audit.AuditService;
 import com.shotaroi.loan.payment.Payment;
 import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.payment.RepaymentSimulator;
+import com.shotaroi.loan.schedule.PrepaymentMode;
 import com.shotaroi.loan.schedule.RepaymentSchedule;
 import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
 import com.shotaroi.loan.schedule.ScheduleService;
@@ -10,13 +12,17 @@ import com.shotaroi.loan.security.SecurityUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -35,17 +41,23 @@ public class LoanController {
     private final ScheduleService scheduleService;
     private final PaymentService paymentService;
     private final AuditService auditService;
+    private final LoanBookExportService exportService;
+    private final RepaymentSimulator repaymentSimulator;
 
     public LoanController(LoanService loanService,
                           RepaymentScheduleRepository scheduleRepository,
                           ScheduleService scheduleService,
                           PaymentService paymentService,
-                          AuditService auditService) {
+                          AuditService auditService,
+                          LoanBookExportService exportService,
+                          RepaymentSimulator repaymentSimulator) {
         this.loanService = loanService;
         this.scheduleRepository = scheduleRepository;
         this.scheduleService = scheduleService;
         this.paymentService = paymentService;
         this.auditService = auditService;
+        this.exportService = exportService;
+        this.repaymentSimulator = repaymentSimulator;
     }
 
     @PostMapping("/from-application/{applicationId}")
@@ -57,7 +69,7 @@ public class LoanController {
 
         Loan loan = loanService.createFromApplication(applicationId, request.startDate(), user.getId());
 
-        auditService.logSync(user.getId(), "LOAN_CREATED",
+        auditService.log(user.getId(), "LOAN_CREATED",
                 "loanId=%d, applicationId=%d, principal=%s %s".formatted(loan.getId(), applicationId, loan.getPrincipal(), loan.getCurrency()));
 
         return ResponseEntity.status(HttpStatus.CREATED).body(new LoanResponse(
@@ -74,10 +86,30 @@ public class LoanController {
         return ResponseEntity.ok(loans.stream().map(this::toResponse).toList());
     }
 
+    @GetMapping("/export")
+    @Operation(summary = "Stream own loans with their installments and payments (format=ndjson|csv)")
+    public ResponseEntity<StreamingResponseBody> exportOwn(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @AuthenticationPrincipal SecurityUser user) {
+
+        var exportFormat = LoanBookExportService.Format.of(format);
+        Long customerId = user.getId();
+        StreamingResponseBody body = out -> {
+            long records = exportService.export(customerId, exportFormat, out);
+            auditService.log(customerId, "LOAN_BOOK_EXPORTED",
+                    "customerId=%d, format=%s, records=%d".formatted(customerId, exportFormat, records));
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"loans-%d.%s\"".formatted(customerId, exportFormat.fileExtension()))
+                .body(body);
+    }
+
     @GetMapping("/{id}")
     @Operation(summary = "Get loan details")
     public ResponseEntity<LoanDetailResponse> get(@PathVariable Long id, @AuthenticationPrincipal SecurityUser user) {
-        Loan loan = loanService.getByIdAndCustomer(id, user.getId());
+        var loan = loanService.getHeader(id, user.getId());
         return ResponseEntity.ok(toDetailResponse(loan));
     }
 
@@ -89,21 +121,21 @@ public class LoanController {
             @RequestParam(defaultValue = "20") int size,
             @AuthenticationPrincipal SecurityUser user) {
 
-        Loan loan = loanService.getByIdAndCustomer(id, user.getId());
+        var loan = loanService.getHeader(id, user.getId());
         var pageable = org.springframework.data.domain.PageRequest.of(page, size);
-        var schedulePage = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.getId(), pageable);
+        var schedulePage = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.id(), pageable);
 
         return ResponseEntity.ok(schedulePage.map(this::toScheduleItem));
     }
 
     @PostMapping("/{id}/schedule/refresh")
     @Operation(summary = "Refresh late status on installments")
-    public ResponseEntity<Void> refreshSchedule(
+    public ResponseEntity<RefreshScheduleResponse> refreshSchedule(
             @PathVariable Long id,
             @AuthenticationPrincipal SecurityUser user) {
-        Loan loan = loanService.getByIdAndCustomer(id, user.getId());
-        scheduleService.refreshLateStatus(loan.getId());
-        return ResponseEntity.ok().build();
+        var loan = loanService.getHeader(id, user.getId());
+        int markedLate = scheduleService.refreshLateStatus(loan.id());
+        return ResponseEntity.ok(new RefreshScheduleResponse(markedLate));
     }
 
     @GetMapping("/{id}/schedule/summary")
@@ -112,45 +144,72 @@ public class LoanController {
             @PathVariable Long id,
             @AuthenticationPrincipal SecurityUser user) {
 
-        Loan loan = loanService.getByIdAndCustomer(id, user.getId());
-        var summary = scheduleService.getSummary(loan.getId());
+        var loan = loanService.getHeader(id, user.getId());
+        var summary = scheduleService.getSummary(loan.id());
 
         return ResponseEntity.ok(new ScheduleSummaryResponse(
                 summary.totalPaid(),
                 summary.totalRemaining(),
                 summary.nextDueDate().map(LocalDate::toString).orElse(null),
                 summary.paidCount(),
-                summary.pendingCount()));
+                summary.pendingCount(),
+                summary.lateCount()));
     }
 
     @PostMapping("/{id}/payments")
-    @Operation(summary = "Post a payment")
+    @Operation(summary = "Post a payment, optionally prepaying principal (prepaymentMode); retries with the same Idempotency-Key return the original result")
     public ResponseEntity<PaymentResponse> postPayment(
             @PathVariable Long id,
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @Valid @RequestBody PaymentRequest request,
             @AuthenticationPrincipal SecurityUser user) {
 
         var result = paymentService.postPayment(id, user.getId(), request.amount(), request.currency(),
-                request.paymentDate(), request.reference());
+                request.paymentDate(), request.reference(), idempotencyKey, request.prepaymentMode());
 
-        auditService.logSync(user.getId(), "PAYMENT_POSTED",
-                "loanId=%d, amount=%s, allocatedInterest=%s, allocatedPrincipal=%s".formatted(id, request.amount(), result.allocatedToInterest(), result.allocatedToPrincipal()));
+        if (!result.replayed()) {
+            auditService.log(user.getId(), "PAYMENT_POSTED",
+                    "loanId=%d, amount=%s, allocatedInterest=%s, allocatedPrincipal=%s".formatted(id, request.amount(), result.allocatedToInterest(), result.allocatedToPrincipal()));
+        }
 
-        return ResponseEntity.status(HttpStatus.CREATED).body(new PaymentResponse(
+        return ResponseEntity.status(result.replayed() ? HttpStatus.OK : HttpStatus.CREATED).body(new PaymentResponse(
                 result.paymentId(),
                 result.allocatedToInterest(),
                 result.allocatedToPrincipal(),
                 result.newOutstandingPrincipal()));
     }
 
+    @GetMapping("/{id}/payoff-quote")
+    @Operation(summary = "Amount that pays the loan off on a date (default today)")
+    public ResponseEntity<PaymentService.PayoffQuote> payoffQuote(
+            @PathVariable Long id,
+            @RequestParam(required = false) LocalDate date,
+            @AuthenticationPrincipal SecurityUser user) {
+        return ResponseEntity.ok(paymentService.quotePayoff(id, user.getId(), date != null ? date : LocalDate.now()));
+    }
+
+    @PostMapping("/{id}/simulations")
+    @Operation(summary = "Project payoff date and interest saved for extra-payment scenarios; nothing is posted")
+    public ResponseEntity<RepaymentSimulator.Simulation> simulate(
+            @PathVariable Long id,
+            @Valid @RequestBody SimulationRequest request,
+            @AuthenticationPrincipal SecurityUser user) {
+
+        var scenarios = request.scenarios().stream()
+                .map(s -> new RepaymentSimulator.Scenario(s.name(), s.extraMonthly(), s.lumpSum(),
+                        s.lumpSumDate(), s.mode()))
+                .toList();
+        return ResponseEntity.ok(repaymentSimulator.simulate(id, user.getId(), scenarios));
+    }
+
     @GetMapping("/{id}/payments")
     @Operation(summary = "List loan payments")
     public ResponseEntity<List<PaymentItemResponse>> listPayments(
             @PathVariable Long id,
             @AuthenticationPrincipal SecurityUser user) {
 
-        Loan loan = loanService.getByIdAndCustomer(id, user.getId());
-        var payments = paymentService.getPayments(loan.getId());
+        var loan = loanService.getHeader(id, user.getId());
+        var payments = paymentService.getPayments(loan.id());
 
         return ResponseEntity.ok(payments.stream()
                 .map(p -> new PaymentItemResponse(
@@ -172,16 +231,16 @@ public class LoanController {
                 loan.getEndDate().toString());
     }
 
-    private LoanDetailResponse toDetailResponse(Loan loan) {
+    private LoanDetailResponse toDetailResponse(LoanHeaderCache.LoanHeader loan) {
         return new LoanDetailResponse(
-                loan.getId(),
-                loan.getStatus().name(),
-                loan.getPrincipal(),
-                loan.getCurrency(),
-                loan.getOutstandingPrincipal(),
-                loan.getAccruedInterest(),
-                loan.getStartDate().toString(),
-                loan.getEndDate().toString());
+                loan.id(),
+                loan.status().name(),
+                loan.principal(),
+                loan.currency(),
+                loan.outstandingPrincipal(),
+                loan.accruedInterest(),
+                loan.startDate().toString(),
+                loan.endDate().toString());
     }
 
     private ScheduleItemResponse toScheduleItem(RepaymentSchedule s) {
@@ -207,15 +266,22 @@ public class LoanController {
                                        BigDecimal interestDue, BigDecimal totalDue, String status,
                                        BigDecimal amountPaid) {}
 
+    public record RefreshScheduleResponse(int markedLate) {}
+
     public record ScheduleSummaryResponse(BigDecimal totalPaid, BigDecimal totalRemaining,
-                                         String nextDueDate, int paidCount, int pendingCount) {}
+                                         String nextDueDate, int paidCount, int pendingCount, int lateCount) {}
 
     public record PaymentRequest(@NotNull BigDecimal amount, @NotNull @jakarta.validation.constraints.Pattern(regexp = "^[A-Z]{3}$") String currency,
-                                 @NotNull LocalDate paymentDate, String reference) {}
+                                 @NotNull LocalDate paymentDate, String reference, PrepaymentMode prepaymentMode) {}
 
     public record PaymentResponse(Long paymentId, BigDecimal allocatedToInterest,
                                   BigDecimal allocatedToPrincipal, BigDecimal newOutstandingPrincipal) {}
 
+    public record SimulationRequest(@NotEmpty List<@NotNull ScenarioRequest> scenarios) {}
+
+    public record ScenarioRequest(String name, BigDecimal extraMonthly, BigDecimal lumpSum, LocalDate lumpSumDate,
+                                  PrepaymentMode mode) {}
+
     public record PaymentItemResponse(Long id, BigDecimal amount, String paymentDate, String reference,
                                       BigDecimal allocatedToInterest, BigDecimal allocatedToPrincipal,
                                       String createdAt) {}
@@ -0,0 +1,106 @@
+package com.shotaroi.loan.loan;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.shotaroi.loan.common.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable snapshots of loan rows by id, so the ownership check and header fields of read endpoints
+ * do not hit the database on every call. Anything that changes a loan row must call
+ * {@link #evictAfterCommit}; the TTL only bounds staleness from writes this instance does not see
+ * (other instances, manual SQL). The owner of a loan never changes, so ownership checks are always exact.
+ */
+@Component
+public class LoanHeaderCache {
+
+    private final LoanRepository loanRepository;
+    private final Cache<Long, LoanHeader> cache;
+    /**
+     * One token per key with a load in flight. Evicting the key drops its token, so a load that overlapped
+     * an eviction of the same loan is returned but not cached; loads of other loans are unaffected.
+     */
+    private final ConcurrentMap<Long, Object> loads = new ConcurrentHashMap<>();
+
+    public LoanHeaderCache(LoanRepository loanRepository,
+                           MeterRegistry meterRegistry,
+                           @Value("${app.loans.header-cache.size:10000}") long maximumSize,
+                           @Value("${app.loans.header-cache.ttl:1m}") Duration ttl) {
+        this.loanRepository = loanRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "loan.headers");
+    }
+
+    /**
+     * Cached header, loading it on a miss. Unknown ids are not cached.
+     * The query runs outside the cache's per-key lock (a monitor), so a virtual thread waiting on the
+     * database never pins its carrier; only the final insert is done under the lock.
+     */
+    public LoanHeader get(Long loanId) {
+        LoanHeader cached = cache.getIfPresent(loanId);
+        if (cached != null) {
+            return cached;
+        }
+        Object token = new Object();
+        loads.put(loanId, token);
+        LoanHeader loaded;
+        try {
+            loaded = loanRepository.findById(loanId)
+                    .map(LoanHeader::of)
+                    .orElseThrow(() -> new ResourceNotFoundException("Loan", loanId));
+        } catch (RuntimeException e) {
+            loads.remove(loanId, token);
+            throw e;
+        }
+        cache.asMap().compute(loanId, (id, current) -> loads.remove(id, token) ? loaded : current);
+        return loaded;
+    }
+
+    /**
+     * Drops the header now and again when the surrounding transaction ends, so a reader that loaded the
+     * old row before the commit cannot leave it cached.
+     */
+    public void evictAfterCommit(Long loanId) {
+        evict(loanId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(loanId);
+                }
+            });
+        }
+    }
+
+    private void evict(Long loanId) {
+        loads.remove(loanId);
+        cache.invalidate(loanId);
+    }
+
+    public record LoanHeader(Long id, Long customerId, Loan.LoanStatus status, BigDecimal principal,
+                             String currency, int termMonths, BigDecimal annualInterestRate,
+                             BigDecimal outstandingPrincipal, BigDecimal accruedInterest,
+                             LocalDate startDate, LocalDate endDate) {
+
+        static LoanHeader of(Loan loan) {
+            return new LoanHeader(loan.getId(), loan.getCustomerId(), loan.getStatus(), loan.getPrincipal(),
+                    loan.getCurrency(), loan.getTermMonths(), loan.getAnnualInterestRate(),
+                    loan.getOutstandingPrincipal(), loan.getAccruedInterest(), loan.getStartDate(), loan.getEndDate());
+        }
+    }
+}
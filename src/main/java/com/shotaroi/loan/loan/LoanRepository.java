@@ -1,7 +1,13 @@
 package com.shotaroi.loan.loan;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,4 +18,26 @@ public interface LoanRepository extends JpaRepository<Loan, Long> {
     Optional<Loan> findByApplicationId(Long applicationId);
 
     boolean existsByApplicationId(Long applicationId);
+
+    /** Loads the loan with a row lock (SELECT ... FOR UPDATE) held until the transaction ends. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from Loan l where l.id = :id")
+    Optional<Loan> findByIdForUpdate(@Param("id") Long id);
+
+    /*
+     * Row locks on several loans at once, taken in id order so concurrent lockers cannot deadlock. Each
+     * returns the ids it locked; the locks are held until the transaction ends.
+     */
+    @Query(nativeQuery = true, value = "SELECT id FROM loan WHERE id IN (:ids) ORDER BY id FOR UPDATE")
+    List<Long> lockByIds(@Param("ids") Collection<Long> ids);
+
+    @Query(nativeQuery = true, value = "SELECT id FROM loan WHERE customer_id = :customerId ORDER BY id FOR UPDATE")
+    List<Long> lockByCustomerId(@Param("customerId") Long customerId);
+
+    /** Keyset page of ACTIVE loan ids after {@code afterId}, for chunked batch jobs. */
+    @Query("""
+            select l.id from Loan l
+            where l.status = com.shotaroi.loan.loan.Loan.LoanStatus.ACTIVE and l.id > :afterId
+            order by l.id""")
+    List<Long> findActiveIdsAfter(@Param("afterId") Long afterId, Limit limit);
 }
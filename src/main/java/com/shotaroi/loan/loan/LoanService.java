@@ -3,13 +3,18 @@ package com.shotaroi.loan.loan;
 import com.shotaroi.loan.common.exception.ForbiddenException;
 import com.shotaroi.loan.common.exception.ResourceNotFoundException;
 import com.shotaroi.loan.common.exception.ValidationException;
+import com.shotaroi.loan.schedule.LoanScheduleSummary;
+import com.shotaroi.loan.schedule.LoanScheduleSummaryRepository;
 import com.shotaroi.loan.schedule.RepaymentSchedule;
 import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
-import com.shotaroi.loan.schedule.ScheduleCalculator;
+import com.shotaroi.loan.schedule.ScheduleEngine;
 import com.shotaroi.loan.underwriting.LoanApplication;
 import com.shotaroi.loan.underwriting.LoanApplicationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,17 +31,46 @@ public class LoanService {
     private final LoanRepository loanRepository;
     private final LoanApplicationRepository applicationRepository;
     private final RepaymentScheduleRepository scheduleRepository;
+    private final LoanScheduleSummaryRepository summaryRepository;
+    private final ScheduleEngine scheduleEngine;
+    private final LoanHeaderCache loanHeaderCache;
+
+    private final Timer createTimer;
+    private final Timer scheduleTimer;
+    private final Timer scheduleSaveTimer;
 
     public LoanService(LoanRepository loanRepository,
                        LoanApplicationRepository applicationRepository,
-                       RepaymentScheduleRepository scheduleRepository) {
+                       RepaymentScheduleRepository scheduleRepository,
+                       LoanScheduleSummaryRepository summaryRepository,
+                       @Value("${app.schedule.engine:BIG_DECIMAL}") ScheduleEngine scheduleEngine,
+                       LoanHeaderCache loanHeaderCache,
+                       MeterRegistry meterRegistry) {
         this.loanRepository = loanRepository;
         this.applicationRepository = applicationRepository;
         this.scheduleRepository = scheduleRepository;
+        this.summaryRepository = summaryRepository;
+        this.scheduleEngine = scheduleEngine;
+        this.loanHeaderCache = loanHeaderCache;
+
+        this.createTimer = Timer.builder("loan.create")
+                .description("Loan creation from an approved application, excluding commit")
+                .register(meterRegistry);
+        this.scheduleTimer = Timer.builder("schedule.generate")
+                .tag("engine", scheduleEngine.name())
+                .description("Amortization schedule calculation")
+                .register(meterRegistry);
+        this.scheduleSaveTimer = Timer.builder("schedule.save")
+                .description("Inserting a new loan's installments and schedule summary")
+                .register(meterRegistry);
     }
 
     @Transactional
     public Loan createFromApplication(Long applicationId, LocalDate startDate, Long customerId) {
+        return createTimer.record(() -> create(applicationId, startDate, customerId));
+    }
+
+    private Loan create(Long applicationId, LocalDate startDate, Long customerId) {
         LoanApplication app = applicationRepository.findById(applicationId)
                 .orElseThrow(() -> new ResourceNotFoundException("Application", applicationId));
 
@@ -65,11 +99,11 @@ public class LoanService {
         loan = loanRepository.save(loan);
         final Long loanId = loan.getId();
 
-        var installments = ScheduleCalculator.generateSchedule(
+        var installments = scheduleTimer.record(() -> scheduleEngine.generateSchedule(
                 app.getPrincipal(),
                 app.getAnnualInterestRate(),
                 app.getTermMonths(),
-                startDate);
+                startDate));
 
         List<RepaymentSchedule> schedule = installments.stream()
                 .map(i -> new RepaymentSchedule(
@@ -81,7 +115,10 @@ public class LoanService {
                         i.totalDue()))
                 .collect(Collectors.toList());
 
-        scheduleRepository.saveAll(schedule);
+        scheduleSaveTimer.record(() -> {
+            scheduleRepository.saveAll(schedule);
+            summaryRepository.save(LoanScheduleSummary.forNewSchedule(loanId, schedule));
+        });
 
         log.info("Loan created: id={}, applicationId={}, termMonths={}", loan.getId(), applicationId, app.getTermMonths());
 
@@ -97,6 +134,18 @@ public class LoanService {
         return loan;
     }
 
+    /**
+     * Cached snapshot of the loan for read endpoints; throws like {@link #getByIdAndCustomer} when the
+     * loan is unknown or belongs to someone else.
+     */
+    public LoanHeaderCache.LoanHeader getHeader(Long id, Long customerId) {
+        LoanHeaderCache.LoanHeader header = loanHeaderCache.get(id);
+        if (!header.customerId().equals(customerId)) {
+            throw new ForbiddenException("Access denied to this loan");
+        }
+        return header;
+    }
+
     public List<Loan> findByCustomerId(Long customerId) {
         return loanRepository.findByCustomerIdOrderByCreatedAtDesc(customerId);
     }
@@ -0,0 +1,162 @@
+package com.shotaroi.loan.loan;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Portfolio-wide balances and delinquency computed in the database: one GROUP BY over loan and one over
+ * the open, overdue installments, both read from the same snapshot. No entity is loaded, so the cost is
+ * two scans whatever the size of the book. Results are cached per as-of date for {@code cacheTtl}
+ * (0 disables caching).
+ */
+@Service
+public class PortfolioAnalyticsService {
+
+    private static final String BALANCES_SQL = """
+            SELECT status, currency, count(*) AS loan_count,
+                   sum(outstanding_principal) AS outstanding_principal,
+                   sum(accrued_interest) AS accrued_interest
+            FROM loan
+            GROUP BY status, currency
+            ORDER BY status, currency""";
+
+    /** A loan's days past due are counted from its oldest unpaid installment that is already due. */
+    private static final String DELINQUENCY_SQL = """
+            WITH overdue AS (
+                SELECT loan_id, ?::date - min(due_date) AS days_past_due,
+                       sum(total_due - COALESCE(amount_paid, 0)) AS overdue_amount
+                FROM repayment_schedule
+                WHERE status <> 'PAID' AND due_date < ?
+                GROUP BY loan_id)
+            SELECT CASE WHEN o.days_past_due <= 30 THEN 0
+                        WHEN o.days_past_due <= 60 THEN 1
+                        WHEN o.days_past_due <= 90 THEN 2
+                        ELSE 3 END AS bucket,
+                   l.currency, count(*) AS loan_count,
+                   sum(l.outstanding_principal) AS outstanding_principal,
+                   sum(o.overdue_amount) AS overdue_amount
+            FROM overdue o
+            JOIN loan l ON l.id = o.loan_id
+            WHERE l.status <> 'CLOSED'
+            GROUP BY 1, 2
+            ORDER BY 1, 2""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Cache<LocalDate, PortfolioAnalytics> cache;
+
+    public PortfolioAnalyticsService(JdbcTemplate jdbcTemplate,
+                                     PlatformTransactionManager transactionManager,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${app.analytics.cache-ttl:1m}") Duration cacheTtl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        // Both aggregates see the same snapshot, so status totals and buckets always agree
+        this.transactionTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(16)
+                .expireAfterWrite(cacheTtl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "portfolio.analytics");
+    }
+
+    /**
+     * Analytics as of {@code asOf}. A cached result younger than the TTL is returned unless
+     * {@code refresh} is set. Computed outside the cache lock; concurrent misses may both query.
+     */
+    public PortfolioAnalytics analyze(LocalDate asOf, boolean refresh) {
+        if (!refresh) {
+            PortfolioAnalytics cached = cache.getIfPresent(asOf);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        PortfolioAnalytics computed = transactionTemplate.execute(status -> compute(asOf));
+        cache.put(asOf, computed);
+        return computed;
+    }
+
+    private PortfolioAnalytics compute(LocalDate asOf) {
+        List<StatusBalance> byStatus = jdbcTemplate.query(BALANCES_SQL, (rs, i) -> new StatusBalance(
+                Loan.LoanStatus.valueOf(rs.getString("status")),
+                rs.getString("currency"),
+                rs.getLong("loan_count"),
+                rs.getBigDecimal("outstanding_principal"),
+                rs.getBigDecimal("accrued_interest")));
+
+        Map<String, CurrencyBalance> byCurrency = new TreeMap<>();
+        for (StatusBalance s : byStatus) {
+            byCurrency.merge(s.currency(),
+                    new CurrencyBalance(s.currency(), s.loanCount(), s.outstandingPrincipal(), s.accruedInterest()),
+                    CurrencyBalance::plus);
+        }
+
+        List<DelinquencyBucket> delinquency = jdbcTemplate.query(DELINQUENCY_SQL, (rs, i) -> new DelinquencyBucket(
+                        Bucket.values()[rs.getInt("bucket")],
+                        rs.getString("currency"),
+                        rs.getLong("loan_count"),
+                        rs.getBigDecimal("outstanding_principal"),
+                        rs.getBigDecimal("overdue_amount")),
+                asOf, asOf);
+
+        return new PortfolioAnalytics(asOf, Instant.now(), new ArrayList<>(byCurrency.values()), byStatus,
+                delinquency);
+    }
+
+    /** Days past due, counted from the oldest unpaid installment that is already due. */
+    public enum Bucket {
+        DAYS_1_30("1-30"),
+        DAYS_31_60("31-60"),
+        DAYS_61_90("61-90"),
+        DAYS_OVER_90("90+");
+
+        private final String label;
+
+        Bucket(String label) {
+            this.label = label;
+        }
+
+        @JsonValue
+        public String label() {
+            return label;
+        }
+    }
+
+    public record PortfolioAnalytics(LocalDate asOf, Instant computedAt, List<CurrencyBalance> byCurrency,
+                                     List<StatusBalance> byStatus, List<DelinquencyBucket> delinquency) {}
+
+    public record CurrencyBalance(String currency, long loanCount, BigDecimal outstandingPrincipal,
+                                  BigDecimal accruedInterest) {
+
+        CurrencyBalance plus(CurrencyBalance other) {
+            return new CurrencyBalance(currency, loanCount + other.loanCount,
+                    outstandingPrincipal.add(other.outstandingPrincipal), accruedInterest.add(other.accruedInterest));
+        }
+    }
+
+    public record StatusBalance(Loan.LoanStatus status, String currency, long loanCount,
+                                BigDecimal outstandingPrincipal, BigDecimal accruedInterest) {}
+
+    public record DelinquencyBucket(Bucket bucket, String currency, long loanCount,
+                                    BigDecimal outstandingPrincipal, BigDecimal overdueAmount) {}
+}
@@ -0,0 +1,207 @@
+package com.shotaroi.loan.payment;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.common.exception.ResourceNotFoundException;
+import com.shotaroi.loan.common.exception.ValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Ingests remittance files line by line. Lines are buffered into chunks of {@code chunkSize}; each chunk
+ * is sorted by loan id (file order kept within a loan) and applied in one transaction, so memory is
+ * bounded by the chunk and the loan rows are locked in a consistent order. If a chunk's transaction
+ * fails, its lines are retried one per transaction so a single bad row cannot sink the others.
+ */
+@Service
+public class BulkPaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkPaymentService.class);
+    private static final String CSV_HEADER = "loanId,amount,currency,paymentDate,reference";
+
+    private final PaymentService paymentService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final int chunkSize;
+
+    public BulkPaymentService(PaymentService paymentService,
+                              PlatformTransactionManager transactionManager,
+                              ObjectMapper objectMapper,
+                              @Value("${app.payments.bulk.chunk-size:500}") int chunkSize) {
+        this.paymentService = paymentService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.objectMapper = objectMapper;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Reads {@code input} to the end and hands one {@link LineResult} per non-blank line to {@code sink},
+     * in file order, after each chunk commits.
+     */
+    public Summary ingest(InputStream input, Format format, Consumer<LineResult> sink) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        List<Line> chunk = new ArrayList<>(chunkSize);
+        Map<LineStatus, Long> totals = new EnumMap<>(LineStatus.class);
+        long lineNumber = 0;
+
+        String raw;
+        while ((raw = reader.readLine()) != null) {
+            lineNumber++;
+            if (raw.isBlank() || (lineNumber == 1 && format == Format.CSV && raw.strip().equals(CSV_HEADER))) {
+                continue;
+            }
+            chunk.add(parse(lineNumber, raw.strip(), format));
+            if (chunk.size() == chunkSize) {
+                emit(applyChunk(chunk), totals, sink);
+                chunk.clear();
+            }
+        }
+        if (!chunk.isEmpty()) {
+            emit(applyChunk(chunk), totals, sink);
+        }
+
+        Summary summary = new Summary(totals.getOrDefault(LineStatus.POSTED, 0L),
+                totals.getOrDefault(LineStatus.REJECTED, 0L), totals.getOrDefault(LineStatus.FAILED, 0L));
+        log.info("Bulk payment ingestion finished: posted={}, rejected={}, failed={}",
+                summary.posted(), summary.rejected(), summary.failed());
+        return summary;
+    }
+
+    private static void emit(List<LineResult> results, Map<LineStatus, Long> totals, Consumer<LineResult> sink) {
+        for (LineResult result : results) {
+            totals.merge(result.status(), 1L, Long::sum);
+            sink.accept(result);
+        }
+    }
+
+    private List<LineResult> applyChunk(List<Line> chunk) {
+        List<Line> ordered = chunk.stream()
+                .sorted(Comparator.comparing((Line l) -> l.request() == null ? Long.MAX_VALUE : l.request().loanId())
+                        .thenComparingLong(Line::number))
+                .toList();
+
+        List<LineResult> results;
+        try {
+            results = transactionTemplate.execute(status -> ordered.stream().map(this::apply).toList());
+        } catch (RuntimeException e) {
+            log.warn("Bulk payment chunk of {} lines failed, retrying line by line: {}", chunk.size(), e.getMessage());
+            results = ordered.stream().map(this::applyAlone).toList();
+        }
+        return results.stream().sorted(Comparator.comparingLong(LineResult::line)).toList();
+    }
+
+    private LineResult apply(Line line) {
+        if (line.request() == null) {
+            return LineResult.rejected(line.number(), null, null, line.error());
+        }
+        PaymentLine request = line.request();
+        try {
+            var result = paymentService.applyPayment(request.loanId(), request.amount(), request.currency(),
+                    request.paymentDate(), request.reference());
+            return LineResult.posted(line.number(), request, result);
+        } catch (ResourceNotFoundException | ValidationException e) {
+            return LineResult.rejected(line.number(), request.loanId(), request.reference(), e.getMessage());
+        }
+    }
+
+    private LineResult applyAlone(Line line) {
+        try {
+            return transactionTemplate.execute(status -> apply(line));
+        } catch (RuntimeException e) {
+            log.error("Bulk payment line {} failed", line.number(), e);
+            PaymentLine request = line.request();
+            return new LineResult(line.number(), LineStatus.FAILED,
+                    request == null ? null : request.loanId(), request == null ? null : request.reference(),
+                    null, null, null, null, "Unexpected error while posting payment");
+        }
+    }
+
+    private Line parse(long number, String raw, Format format) {
+        try {
+            PaymentLine request = format == Format.CSV ? parseCsv(raw) : parseJson(raw);
+            return new Line(number, request, null);
+        } catch (IllegalArgumentException | DateTimeParseException | JsonProcessingException e) {
+            return new Line(number, null, "Unparseable line: " + e.getMessage());
+        }
+    }
+
+    private PaymentLine parseCsv(String raw) {
+        String[] fields = raw.split(",", -1);
+        if (fields.length != 5) {
+            throw new IllegalArgumentException("expected 5 fields (" + CSV_HEADER + "), got " + fields.length);
+        }
+        return new PaymentLine(
+                Long.valueOf(fields[0].strip()),
+                new BigDecimal(fields[1].strip()),
+                fields[2].strip(),
+                LocalDate.parse(fields[3].strip()),
+                fields[4].strip().isEmpty() ? null : fields[4].strip());
+    }
+
+    private PaymentLine parseJson(String raw) throws JsonProcessingException {
+        JsonNode node = objectMapper.readTree(raw);
+        for (String field : List.of("loanId", "amount", "currency", "paymentDate")) {
+            if (!node.hasNonNull(field)) {
+                throw new IllegalArgumentException("missing " + field);
+            }
+        }
+        return new PaymentLine(
+                Long.valueOf(node.get("loanId").asText()),
+                new BigDecimal(node.get("amount").asText()),
+                node.get("currency").asText(),
+                LocalDate.parse(node.get("paymentDate").asText()),
+                node.hasNonNull("reference") ? node.get("reference").asText() : null);
+    }
+
+    public enum Format {
+        CSV,
+        NDJSON
+    }
+
+    public enum LineStatus {
+        POSTED,
+        REJECTED,
+        FAILED
+    }
+
+    public record PaymentLine(Long loanId, BigDecimal amount, String currency, LocalDate paymentDate,
+                              String reference) {}
+
+    public record LineResult(long line, LineStatus status, Long loanId, String reference, Long paymentId,
+                             BigDecimal allocatedToInterest, BigDecimal allocatedToPrincipal,
+                             BigDecimal newOutstandingPrincipal, String error) {
+
+        static LineResult posted(long line, PaymentLine request, PaymentService.PaymentResult result) {
+            return new LineResult(line, LineStatus.POSTED, request.loanId(), request.reference(), result.paymentId(),
+                    result.allocatedToInterest(), result.allocatedToPrincipal(), result.newOutstandingPrincipal(), null);
+        }
+
+        static LineResult rejected(long line, Long loanId, String reference, String error) {
+            return new LineResult(line, LineStatus.REJECTED, loanId, reference, null, null, null, null, error);
+        }
+    }
+
+    public record Summary(long posted, long rejected, long failed) {}
+
+    private record Line(long number, PaymentLine request, String error) {}
+}
@@ -0,0 +1,25 @@
+package com.shotaroi.loan.payment;
+
+import java.math.BigDecimal;
+
+/**
+ * The part of an available amount that one installment takes: its unpaid interest first, then its unpaid
+ * principal. What the installment already received ({@code amountPaid}) is counted the same way, interest first.
+ */
+record InstallmentAllocation(BigDecimal toInterest, BigDecimal toPrincipal) {
+
+    static InstallmentAllocation of(BigDecimal interestDue, BigDecimal principalDue, BigDecimal amountPaid,
+                                    BigDecimal available) {
+        BigDecimal interestPaid = amountPaid.min(interestDue);
+        BigDecimal interestRemaining = interestDue.subtract(interestPaid);
+        BigDecimal principalRemaining = principalDue.subtract(amountPaid.subtract(interestPaid).max(BigDecimal.ZERO));
+
+        BigDecimal toInterest = available.min(interestRemaining);
+        BigDecimal toPrincipal = available.subtract(toInterest).min(principalRemaining);
+        return new InstallmentAllocation(toInterest, toPrincipal);
+    }
+
+    BigDecimal total() {
+        return toInterest.add(toPrincipal);
+    }
+}
@@ -36,6 +36,12 @@ public class Payment {
     @Column(name = "allocated_to_principal", nullable = false, precision = 19, scale = 2)
     private BigDecimal allocatedToPrincipal;
 
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+
+    @Column(name = "outstanding_principal_after", precision = 19, scale = 2)
+    private BigDecimal outstandingPrincipalAfter;
+
     @CreationTimestamp
     @Column(name = "created_at", nullable = false)
     private Instant createdAt;
@@ -44,6 +50,12 @@ public class Payment {
 
     public Payment(Long loanId, BigDecimal amount, String currency, LocalDate paymentDate,
                    String reference, BigDecimal allocatedToInterest, BigDecimal allocatedToPrincipal) {
+        this(loanId, amount, currency, paymentDate, reference, allocatedToInterest, allocatedToPrincipal, null, null);
+    }
+
+    public Payment(Long loanId, BigDecimal amount, String currency, LocalDate paymentDate,
+                   String reference, BigDecimal allocatedToInterest, BigDecimal allocatedToPrincipal,
+                   String idempotencyKey, BigDecimal outstandingPrincipalAfter) {
         this.loanId = loanId;
         this.amount = amount;
         this.currency = currency;
@@ -51,6 +63,8 @@ public class Payment {
         this.reference = reference;
         this.allocatedToInterest = allocatedToInterest;
         this.allocatedToPrincipal = allocatedToPrincipal;
+        this.idempotencyKey = idempotencyKey;
+        this.outstandingPrincipalAfter = outstandingPrincipalAfter;
     }
 
     public Long getId() {
@@ -85,6 +99,14 @@ public class Payment {
         return allocatedToPrincipal;
     }
 
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public BigDecimal getOutstandingPrincipalAfter() {
+        return outstandingPrincipalAfter;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,80 @@
+package com.shotaroi.loan.payment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.shotaroi.loan.audit.AuditService;
+import com.shotaroi.loan.common.exception.ValidationException;
+import com.shotaroi.loan.security.SecurityUser;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+@RequestMapping("/api/admin/payments")
+@Tag(name = "Admin - Payments")
+public class PaymentAdminController {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    private final BulkPaymentService bulkPaymentService;
+    private final AuditService auditService;
+    private final ObjectMapper objectMapper;
+
+    public PaymentAdminController(BulkPaymentService bulkPaymentService,
+                                  AuditService auditService,
+                                  ObjectMapper objectMapper) {
+        this.bulkPaymentService = bulkPaymentService;
+        this.auditService = auditService;
+        this.objectMapper = objectMapper;
+    }
+
+    @PostMapping(value = "/bulk", consumes = {"text/csv", NDJSON}, produces = NDJSON)
+    @Operation(summary = "Ingest a remittance file (CSV or NDJSON); streams one NDJSON result per line (ADMIN)")
+    public void ingest(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                       HttpServletRequest request,
+                       HttpServletResponse response,
+                       @AuthenticationPrincipal SecurityUser user) throws IOException {
+
+        BulkPaymentService.Format format = formatOf(contentType);
+        response.setContentType(NDJSON);
+
+        BulkPaymentService.Summary summary;
+        // Results go out as each chunk commits; the servlet buffer, not the report, bounds memory
+        try (SequenceWriter out = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            summary = bulkPaymentService.ingest(request.getInputStream(), format, result -> {
+                try {
+                    out.write(result);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            out.flush();
+        }
+
+        auditService.log(user.getId(), "BULK_PAYMENTS_INGESTED", "format=%s, posted=%d, rejected=%d, failed=%d"
+                .formatted(format, summary.posted(), summary.rejected(), summary.failed()));
+    }
+
+    private static BulkPaymentService.Format formatOf(String contentType) {
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType("text/csv"))) {
+            return BulkPaymentService.Format.CSV;
+        }
+        if (mediaType.isCompatibleWith(MediaType.parseMediaType(NDJSON))) {
+            return BulkPaymentService.Format.NDJSON;
+        }
+        throw new ValidationException("Unsupported content type: " + contentType);
+    }
+}
@@ -0,0 +1,55 @@
+package com.shotaroi.loan.payment;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Recently posted payments by (loan id, idempotency key), so client retries are answered from memory.
+ * Bounded by size and TTL; the unique index on payment(loan_id, idempotency_key) stays the source of truth.
+ */
+@Component
+public class PaymentIdempotencyCache {
+
+    private final Cache<Key, Entry> cache;
+
+    public PaymentIdempotencyCache(@Value("${app.payments.idempotency.cache-size:100000}") long maximumSize,
+                                   @Value("${app.payments.idempotency.ttl:24h}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Optional<Entry> get(Long loanId, String idempotencyKey) {
+        return Optional.ofNullable(cache.getIfPresent(new Key(loanId, idempotencyKey)));
+    }
+
+    /** Caches the entry once the surrounding transaction commits, so rolled-back payments are never replayed. */
+    public void putAfterCommit(Long loanId, String idempotencyKey, Entry entry) {
+        Key key = new Key(loanId, idempotencyKey);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.put(key, entry);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.put(key, entry);
+            }
+        });
+    }
+
+    public record Entry(Long customerId, BigDecimal amount, String currency, LocalDate paymentDate,
+                        PaymentService.PaymentResult result) {}
+
+    private record Key(Long loanId, String idempotencyKey) {}
+}
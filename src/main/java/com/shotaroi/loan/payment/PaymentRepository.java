@@ -3,8 +3,11 @@ package com.shotaroi.loan.payment;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
     List<Payment> findByLoanIdOrderByCreatedAtDesc(Long loanId);
+
+    Optional<Payment> findByLoanIdAndIdempotencyKey(Long loanId, String idempotencyKey);
 }
@@ -5,18 +5,35 @@ import com.shotaroi.loan.common.exception.ResourceNotFoundException;
 import com.shotaroi.loan.common.exception.ValidationException;
 import com.shotaroi.loan.common.validation.LoanValidation;
 import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanHeaderCache;
 import com.shotaroi.loan.loan.LoanRepository;
+import com.shotaroi.loan.schedule.LoanScheduleSummaryRepository;
+import com.shotaroi.loan.schedule.PrepaymentMode;
 import com.shotaroi.loan.schedule.RepaymentSchedule;
 import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import com.shotaroi.loan.schedule.ScheduleCalculator;
+import com.shotaroi.loan.schedule.ScheduleEngine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 @Service
 public class PaymentService {
@@ -27,24 +44,211 @@ public class PaymentService {
     private final PaymentRepository paymentRepository;
     private final LoanRepository loanRepository;
     private final RepaymentScheduleRepository scheduleRepository;
+    private final LoanScheduleSummaryRepository summaryRepository;
+    private final PaymentIdempotencyCache idempotencyCache;
+    private final LoanHeaderCache loanHeaderCache;
+    private final ScheduleEngine scheduleEngine;
+
+    private final Timer postedTimer;
+    private final Timer replayedTimer;
+    private final Timer failedTimer;
+    private final Map<PrepaymentMode, Counter> prepayments = new EnumMap<>(PrepaymentMode.class);
+    private final Timer loadPhase;
+    private final Timer allocationPhase;
+    private final Timer installmentSavesPhase;
+    private final Timer loanSavePhase;
+    private final DistributionSummary installmentsTouched;
+    private final Counter installmentsPaid;
 
     public PaymentService(PaymentRepository paymentRepository,
                           LoanRepository loanRepository,
-                          RepaymentScheduleRepository scheduleRepository) {
+                          RepaymentScheduleRepository scheduleRepository,
+                          LoanScheduleSummaryRepository summaryRepository,
+                          PaymentIdempotencyCache idempotencyCache,
+                          LoanHeaderCache loanHeaderCache,
+                          @Value("${app.schedule.engine:BIG_DECIMAL}") ScheduleEngine scheduleEngine,
+                          MeterRegistry meterRegistry) {
         this.paymentRepository = paymentRepository;
         this.loanRepository = loanRepository;
         this.scheduleRepository = scheduleRepository;
+        this.summaryRepository = summaryRepository;
+        this.idempotencyCache = idempotencyCache;
+        this.loanHeaderCache = loanHeaderCache;
+        this.scheduleEngine = scheduleEngine;
+
+        this.postedTimer = postTimer(meterRegistry, "posted");
+        this.replayedTimer = postTimer(meterRegistry, "replayed");
+        this.failedTimer = postTimer(meterRegistry, "error");
+        for (PrepaymentMode mode : PrepaymentMode.values()) {
+            prepayments.put(mode, Counter.builder("payment.prepayments")
+                    .tag("mode", mode.name())
+                    .description("Payments that prepaid principal and re-amortized the schedule")
+                    .register(meterRegistry));
+        }
+        this.loadPhase = phaseTimer(meterRegistry, "load", "Locking and loading the loan row");
+        this.allocationPhase = phaseTimer(meterRegistry, "allocation",
+                "Walking the open installments, excluding their saves");
+        this.installmentSavesPhase = phaseTimer(meterRegistry, "installment.saves",
+                "Saving touched installments and updating the schedule summary");
+        this.loanSavePhase = phaseTimer(meterRegistry, "loan.save", "Saving the loan and inserting the payment row");
+        this.installmentsTouched = DistributionSummary.builder("payment.installments.touched")
+                .description("Installments updated by one payment")
+                .register(meterRegistry);
+        this.installmentsPaid = Counter.builder("payment.installments.paid")
+                .description("Installments fully paid off by payments")
+                .register(meterRegistry);
+    }
+
+    // Commit time is not included; it is part of http.server.requests for the payment endpoint
+    private static Timer postTimer(MeterRegistry meterRegistry, String outcome) {
+        return Timer.builder("payment.post")
+                .tag("outcome", outcome)
+                .description("Payment posting, from the idempotency check to the payment row insert")
+                .register(meterRegistry);
     }
 
+    private static Timer phaseTimer(MeterRegistry meterRegistry, String phase, String description) {
+        return Timer.builder("payment.phase")
+                .tag("phase", phase)
+                .description(description)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Posts a payment without an idempotency key. The reference is free text: two payments citing the same
+     * invoice are two payments.
+     */
     @Transactional
     public PaymentResult postPayment(Long loanId, Long customerId, BigDecimal amount, String currency,
                                      LocalDate paymentDate, String reference) {
+        return postPayment(loanId, customerId, amount, currency, paymentDate, reference, null);
+    }
+
+    /**
+     * Posts a payment that fills the open installments in order.
+     */
+    @Transactional
+    public PaymentResult postPayment(Long loanId, Long customerId, BigDecimal amount, String currency,
+                                     LocalDate paymentDate, String reference, String idempotencyKey) {
+        return postPayment(loanId, customerId, amount, currency, paymentDate, reference, idempotencyKey, null);
+    }
+
+    /**
+     * Allocates a payment to the loan's accrued interest and installments.
+     * The loan row is locked for the whole transaction, so concurrent payments on the same loan
+     * run one after another and each sees the balances left by the previous one.
+     * A repeated {@code idempotencyKey} on the same loan returns the original result (flagged as replayed)
+     * without locking or allocating again; it is checked in memory, then in the database, then once more
+     * under the lock. A repeated key with a different amount, currency or payment date is rejected.
+     * <p>
+     * Without a {@code prepaymentMode} the money fills the open installments in order. With one, it covers the
+     * installments due by {@code paymentDate} (and any already partly paid); the rest prepays principal and
+     * the installments not yet due are re-amortized from the new outstanding principal with that mode.
+     */
+    @Transactional
+    public PaymentResult postPayment(Long loanId, Long customerId, BigDecimal amount, String currency,
+                                     LocalDate paymentDate, String reference, String idempotencyKey,
+                                     PrepaymentMode prepaymentMode) {
+        long start = System.nanoTime();
+        Timer timer = failedTimer;
+        try {
+            PaymentResult result = doPostPayment(loanId, customerId, amount, currency, paymentDate, reference,
+                    idempotencyKey, prepaymentMode);
+            timer = result.replayed() ? replayedTimer : postedTimer;
+            return result;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
 
-        Loan loan = loanRepository.findById(loanId)
-                .orElseThrow(() -> new ResourceNotFoundException("Loan", loanId));
+    private PaymentResult doPostPayment(Long loanId, Long customerId, BigDecimal amount, String currency,
+                                        LocalDate paymentDate, String reference, String idempotencyKey,
+                                        PrepaymentMode prepaymentMode) {
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? null : idempotencyKey.strip();
+        if (key != null) {
+            if (key.length() > 255) {
+                throw new ValidationException("Idempotency key must be at most 255 characters");
+            }
+            var cached = idempotencyCache.get(loanId, key);
+            if (cached.isPresent()) {
+                return replay(cached.get(), customerId, amount, currency, paymentDate);
+            }
+            var stored = paymentRepository.findByLoanIdAndIdempotencyKey(loanId, key);
+            if (stored.isPresent()) {
+                return replay(stored.get(), customerId, amount, currency, paymentDate);
+            }
+        }
+
+        Loan loan = lockLoan(loanId);
         if (!loan.getCustomerId().equals(customerId)) {
             throw new ForbiddenException("Access denied to this loan");
         }
+        if (key != null) {
+            // A concurrent retry may have committed while we waited for the lock
+            var stored = paymentRepository.findByLoanIdAndIdempotencyKey(loanId, key);
+            if (stored.isPresent()) {
+                return replay(stored.get(), customerId, amount, currency, paymentDate);
+            }
+        }
+
+        PaymentResult result = allocate(loanId, loan, amount, currency, paymentDate, reference, key, prepaymentMode);
+        if (key != null) {
+            idempotencyCache.putAfterCommit(loanId, key,
+                    new PaymentIdempotencyCache.Entry(customerId, amount, currency, paymentDate, result));
+        }
+        return result;
+    }
+
+    /**
+     * Back-office variant of {@link #postPayment} without the ownership check. Runs in the caller's
+     * transaction so batches can commit many payments at once; a rejected payment (unknown or closed
+     * loan, bad amount or currency) throws before anything is written and leaves that transaction usable.
+     */
+    @Transactional(propagation = Propagation.MANDATORY,
+            noRollbackFor = {ResourceNotFoundException.class, ValidationException.class})
+    public PaymentResult applyPayment(Long loanId, BigDecimal amount, String currency,
+                                      LocalDate paymentDate, String reference) {
+        Loan loan = lockLoan(loanId);
+        return allocate(loanId, loan, amount, currency, paymentDate, reference, null, null);
+    }
+
+    private Loan lockLoan(Long loanId) {
+        long start = System.nanoTime();
+        try {
+            return loanRepository.findByIdForUpdate(loanId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Loan", loanId));
+        } finally {
+            loadPhase.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private PaymentResult replay(PaymentIdempotencyCache.Entry entry, Long customerId,
+                                 BigDecimal amount, String currency, LocalDate paymentDate) {
+        if (!entry.customerId().equals(customerId)) {
+            throw new ForbiddenException("Access denied to this loan");
+        }
+        if (entry.amount().compareTo(amount) != 0 || !entry.currency().equals(currency)
+                || !entry.paymentDate().equals(paymentDate)) {
+            throw new ValidationException("Idempotency key was already used for a different payment");
+        }
+        log.info("Payment replayed: paymentId={}", entry.result().paymentId());
+        return entry.result().asReplay();
+    }
+
+    private PaymentResult replay(Payment payment, Long customerId, BigDecimal amount, String currency,
+                                 LocalDate paymentDate) {
+        Long ownerId = loanHeaderCache.get(payment.getLoanId()).customerId();
+        PaymentResult original = new PaymentResult(payment.getId(), payment.getAllocatedToInterest(),
+                payment.getAllocatedToPrincipal(), payment.getOutstandingPrincipalAfter(), false);
+        var entry = new PaymentIdempotencyCache.Entry(ownerId, payment.getAmount(), payment.getCurrency(),
+                payment.getPaymentDate(), original);
+        idempotencyCache.putAfterCommit(payment.getLoanId(), payment.getIdempotencyKey(), entry);
+        return replay(entry, customerId, amount, currency, paymentDate);
+    }
+
+    private PaymentResult allocate(Long loanId, Loan loan, BigDecimal amount, String currency,
+                                   LocalDate paymentDate, String reference, String idempotencyKey,
+                                   PrepaymentMode prepaymentMode) {
         if (loan.getStatus() == Loan.LoanStatus.CLOSED) {
             throw new ValidationException("Cannot post payment to closed loan");
         }
@@ -65,59 +269,200 @@ public class PaymentService {
             accruedInterest = accruedInterest.subtract(toInterest);
         }
 
-        List<RepaymentSchedule> installments = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loanId);
+        // Schedule summary deltas, applied in one statement after the walk
+        BigDecimal appliedToInstallments = BigDecimal.ZERO.setScale(SCALE);
+        BigDecimal newlyPaidAmount = BigDecimal.ZERO.setScale(SCALE);
+        int newlyPaid = 0;
+        int lateCleared = 0;
+        LocalDate nextDueDate = null;
+        int touched = 0;
+        // Installments not due yet, re-amortized after a prepayment instead of being paid ahead
+        List<RepaymentSchedule> notDue = new ArrayList<>();
 
-        for (RepaymentSchedule s : installments) {
-            if (remaining.compareTo(BigDecimal.ZERO) <= 0) break;
-            if (s.getStatus() == RepaymentSchedule.InstallmentStatus.PAID) continue;
-
-            BigDecimal amountPaid = s.getAmountPaid();
-            BigDecimal interestRemaining = s.getInterestDue().subtract(amountPaid.min(s.getInterestDue()));
-            BigDecimal principalRemaining = s.getPrincipalDue().subtract(
-                    amountPaid.subtract(amountPaid.min(s.getInterestDue())).max(BigDecimal.ZERO));
+        long allocationStart = System.nanoTime();
+        long saveNanos = 0;
+        // Only open installments are read, and the cursor is closed as soon as the amount is used up
+        try (Stream<RepaymentSchedule> unpaid = scheduleRepository.streamUnpaidByLoanId(loanId)) {
+            Iterator<RepaymentSchedule> installments = unpaid.iterator();
+            while (remaining.compareTo(BigDecimal.ZERO) > 0 && installments.hasNext()) {
+                RepaymentSchedule s = installments.next();
+                if (prepaymentMode != null && s.getDueDate().isAfter(paymentDate)
+                        && s.getAmountPaid().signum() == 0) {
+                    notDue.add(s);
+                    break;
+                }
 
-            BigDecimal toPayInterest = remaining.min(interestRemaining);
-            BigDecimal toPayPrincipal = remaining.subtract(toPayInterest).min(principalRemaining);
-            BigDecimal toPay = toPayInterest.add(toPayPrincipal);
+                BigDecimal amountPaid = s.getAmountPaid();
+                InstallmentAllocation split = InstallmentAllocation.of(
+                        s.getInterestDue(), s.getPrincipalDue(), amountPaid, remaining);
+                BigDecimal toPayInterest = split.toInterest();
+                BigDecimal toPayPrincipal = split.toPrincipal();
+                BigDecimal toPay = split.total();
 
-            if (toPay.compareTo(BigDecimal.ZERO) > 0) {
-                allocatedToInterest = allocatedToInterest.add(toPayInterest);
-                allocatedToPrincipal = allocatedToPrincipal.add(toPayPrincipal);
-                accruedInterest = accruedInterest.subtract(toPayInterest);
-                outstandingPrincipal = outstandingPrincipal.subtract(toPayPrincipal);
+                if (toPay.compareTo(BigDecimal.ZERO) > 0) {
+                    allocatedToInterest = allocatedToInterest.add(toPayInterest);
+                    allocatedToPrincipal = allocatedToPrincipal.add(toPayPrincipal);
+                    accruedInterest = accruedInterest.subtract(toPayInterest);
+                    outstandingPrincipal = outstandingPrincipal.subtract(toPayPrincipal);
 
-                s.setAmountPaid(amountPaid.add(toPay));
-                if (s.getAmountPaid().compareTo(s.getTotalDue()) >= 0) {
-                    s.setStatus(RepaymentSchedule.InstallmentStatus.PAID);
+                    boolean wasLate = s.getStatus() == RepaymentSchedule.InstallmentStatus.LATE;
+                    s.setAmountPaid(amountPaid.add(toPay));
+                    appliedToInstallments = appliedToInstallments.add(toPay);
+                    if (s.getAmountPaid().compareTo(s.getTotalDue()) >= 0) {
+                        s.setStatus(RepaymentSchedule.InstallmentStatus.PAID);
+                        newlyPaid++;
+                        newlyPaidAmount = newlyPaidAmount.add(s.getAmountPaid());
+                        if (wasLate) {
+                            lateCleared++;
+                        }
+                    }
+                    long saveStart = System.nanoTime();
+                    scheduleRepository.save(s);
+                    saveNanos += System.nanoTime() - saveStart;
+                    touched++;
+                    remaining = remaining.subtract(toPay);
                 }
-                scheduleRepository.save(s);
-                remaining = remaining.subtract(toPay);
+                if (nextDueDate == null && s.getStatus() != RepaymentSchedule.InstallmentStatus.PAID) {
+                    nextDueDate = s.getDueDate();
+                }
+            }
+            if (!notDue.isEmpty()) {
+                installments.forEachRemaining(notDue::add);
+                if (nextDueDate == null) {
+                    nextDueDate = notDue.get(0).getDueDate();
+                }
+            } else if (nextDueDate == null && installments.hasNext()) {
+                // Everything read is now paid; the next open installment is the following one
+                nextDueDate = installments.next().getDueDate();
+            }
+        }
+        Reamortization reamortization = Reamortization.NONE;
+        if (!notDue.isEmpty() && outstandingPrincipal.signum() > 0) {
+            BigDecimal prepaid = remaining.min(outstandingPrincipal);
+            allocatedToPrincipal = allocatedToPrincipal.add(prepaid);
+            outstandingPrincipal = outstandingPrincipal.subtract(prepaid);
+            remaining = remaining.subtract(prepaid);
+            reamortization = reamortize(loan, notDue, outstandingPrincipal, prepaymentMode);
+            if (reamortization.removed() == notDue.size()) {
+                nextDueDate = null;
             }
         }
+        long summaryStart = System.nanoTime();
+        allocationPhase.record(summaryStart - allocationStart - saveNanos, TimeUnit.NANOSECONDS);
+        summaryRepository.applyPayment(loanId, appliedToInstallments, newlyPaidAmount, newlyPaid, lateCleared,
+                reamortization.released(), reamortization.removed(), nextDueDate);
+        // The installment UPDATEs themselves are batched into the flush at commit, outside this phase
+        installmentSavesPhase.record(saveNanos + System.nanoTime() - summaryStart, TimeUnit.NANOSECONDS);
+        installmentsTouched.record(touched);
+        installmentsPaid.increment(newlyPaid);
 
+        long loanSaveStart = System.nanoTime();
         loan.setAccruedInterest(accruedInterest.max(BigDecimal.ZERO));
         loan.setOutstandingPrincipal(outstandingPrincipal.max(BigDecimal.ZERO));
 
         if (loan.getOutstandingPrincipal().compareTo(BigDecimal.ZERO) == 0) {
             loan.setStatus(Loan.LoanStatus.CLOSED);
             log.info("Loan closed: id={}", loanId);
+        } else if (reamortization.endDate() != null) {
+            loan.setEndDate(reamortization.endDate());
         }
         loanRepository.save(loan);
+        loanHeaderCache.evictAfterCommit(loanId);
 
         Payment payment = new Payment(loanId, amount, currency, paymentDate, reference,
-                allocatedToInterest, allocatedToPrincipal);
+                allocatedToInterest, allocatedToPrincipal, idempotencyKey, loan.getOutstandingPrincipal());
         payment = paymentRepository.save(payment);
+        loanSavePhase.record(System.nanoTime() - loanSaveStart, TimeUnit.NANOSECONDS);
 
         log.info("Payment posted: loanId={}, amount={}, toInterest={}, toPrincipal={}, newOutstanding={}",
                 loanId, amount, allocatedToInterest, allocatedToPrincipal, loan.getOutstandingPrincipal());
 
-        return new PaymentResult(payment.getId(), allocatedToInterest, allocatedToPrincipal, loan.getOutstandingPrincipal());
+        return new PaymentResult(payment.getId(), allocatedToInterest, allocatedToPrincipal,
+                loan.getOutstandingPrincipal(), false);
+    }
+
+    /**
+     * Re-amortizes the untouched open installments ({@code notDue}, oldest first) over {@code principal}.
+     * Rows are diffed against the regenerated schedule: unchanged rows are left alone, changed ones are updated
+     * in place (only their changed columns) and rows past a shortened term are deleted in one statement.
+     */
+    private Reamortization reamortize(Loan loan, List<RepaymentSchedule> notDue, BigDecimal principal,
+                                      PrepaymentMode mode) {
+        BigDecimal before = notDue.stream()
+                .map(RepaymentSchedule::getTotalDue)
+                .reduce(BigDecimal.ZERO.setScale(SCALE), BigDecimal::add);
+        RepaymentSchedule first = notDue.get(0);
+        // Due dates are chained month by month, so stepping back one month regenerates the same dates
+        List<ScheduleCalculator.ScheduleInstallment> regenerated = principal.signum() > 0
+                ? mode.regenerate(scheduleEngine, principal, loan.getAnnualInterestRate(), notDue.size(),
+                        first.getTotalDue(), first.getDueDate().minusMonths(1))
+                : List.of();
+
+        BigDecimal after = BigDecimal.ZERO.setScale(SCALE);
+        int rewritten = 0;
+        for (int i = 0; i < regenerated.size(); i++) {
+            var installment = regenerated.get(i);
+            RepaymentSchedule row = notDue.get(i);
+            if (row.reschedule(installment.dueDate(), installment.principalDue(), installment.interestDue(),
+                    installment.totalDue())) {
+                scheduleRepository.save(row);
+                rewritten++;
+            }
+            after = after.add(installment.totalDue());
+        }
+        List<RepaymentSchedule> dropped = notDue.subList(regenerated.size(), notDue.size());
+        if (!dropped.isEmpty()) {
+            scheduleRepository.deleteAllInBatch(dropped);
+        }
+        prepayments.get(mode).increment();
+        log.info("Schedule re-amortized: loanId={}, mode={}, rewritten={}, unchanged={}, removed={}",
+                loan.getId(), mode, rewritten, regenerated.size() - rewritten, dropped.size());
+
+        LocalDate endDate = regenerated.isEmpty() ? null : regenerated.get(regenerated.size() - 1).dueDate();
+        return new Reamortization(before.subtract(after), dropped.size(), endDate);
+    }
+
+    /**
+     * Amount due to pay the loan off on {@code date}: outstanding principal, accrued interest and the unpaid
+     * interest of installments due by then. Posting it on that date with a prepayment mode closes the loan.
+     * Reads the cached loan header and one aggregate over the open installments.
+     */
+    public PayoffQuote quotePayoff(Long loanId, Long customerId, LocalDate date) {
+        LoanHeaderCache.LoanHeader loan = loanHeaderCache.get(loanId);
+        if (!loan.customerId().equals(customerId)) {
+            throw new ForbiddenException("Access denied to this loan");
+        }
+        if (loan.status() == Loan.LoanStatus.CLOSED) {
+            throw new ValidationException("Loan is already closed");
+        }
+        var open = scheduleRepository.findOpenInterest(loanId, date);
+        BigDecimal interestDue = open.getInterestDue().setScale(SCALE, RoundingMode.HALF_UP);
+        BigDecimal payoffAmount = loan.outstandingPrincipal().add(loan.accruedInterest()).add(interestDue);
+        // Another installment's interest becomes due on the next due date
+        LocalDate validThrough = open.getNextDueDate() == null ? null : open.getNextDueDate().minusDays(1);
+        return new PayoffQuote(loanId, loan.currency(), date, loan.outstandingPrincipal(), loan.accruedInterest(),
+                interestDue, payoffAmount, validThrough);
     }
 
     public List<Payment> getPayments(Long loanId) {
         return paymentRepository.findByLoanIdOrderByCreatedAtDesc(loanId);
     }
 
+    private record Reamortization(BigDecimal released, int removed, LocalDate endDate) {
+
+        static final Reamortization NONE = new Reamortization(BigDecimal.ZERO.setScale(SCALE), 0, null);
+    }
+
+    public record PayoffQuote(Long loanId, String currency, LocalDate quoteDate, BigDecimal outstandingPrincipal,
+                              BigDecimal accruedInterest, BigDecimal interestDue, BigDecimal payoffAmount,
+                              LocalDate validThrough) {}
+
     public record PaymentResult(Long paymentId, BigDecimal allocatedToInterest,
-                                BigDecimal allocatedToPrincipal, BigDecimal newOutstandingPrincipal) {}
+                                BigDecimal allocatedToPrincipal, BigDecimal newOutstandingPrincipal,
+                                boolean replayed) {
+
+        PaymentResult asReplay() {
+            return new PaymentResult(paymentId, allocatedToInterest, allocatedToPrincipal, newOutstandingPrincipal, true);
+        }
+    }
 }
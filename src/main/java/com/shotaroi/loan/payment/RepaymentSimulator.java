@@ -0,0 +1,180 @@
+package com.shotaroi.loan.payment;
+
+import com.shotaroi.loan.common.exception.ForbiddenException;
+import com.shotaroi.loan.common.exception.ValidationException;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanHeaderCache;
+import com.shotaroi.loan.schedule.OpenInstallment;
+import com.shotaroi.loan.schedule.PrepaymentMode;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import com.shotaroi.loan.schedule.ScheduleEngine;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * What-if projections of extra payments against a loan's live schedule. The loan header comes from
+ * {@link LoanHeaderCache} and the open installments are read once; every scenario then runs in memory on
+ * its own copy, in parallel on the application task executor, and nothing is written.
+ * <p>
+ * Each open installment is assumed to be paid in full on its due date, split with the same
+ * interest-then-principal allocation as {@link PaymentService}. Extra money (the monthly extra, and the
+ * lump sum at the first due date on or after its date) prepays principal, and the installments after it
+ * are re-amortized with the configured {@link ScheduleEngine}, as a posted prepayment would be, according to
+ * the scenario's {@link PrepaymentMode}.
+ */
+@Service
+public class RepaymentSimulator {
+
+    public static final int MAX_SCENARIOS = 20;
+    private static final int SCALE = 2;
+
+    private final LoanHeaderCache loanHeaderCache;
+    private final RepaymentScheduleRepository scheduleRepository;
+    private final ScheduleEngine scheduleEngine;
+    private final Executor executor;
+
+    public RepaymentSimulator(LoanHeaderCache loanHeaderCache,
+                              RepaymentScheduleRepository scheduleRepository,
+                              @Value("${app.schedule.engine:BIG_DECIMAL}") ScheduleEngine scheduleEngine,
+                              @Qualifier("applicationTaskExecutor") Executor executor) {
+        this.loanHeaderCache = loanHeaderCache;
+        this.scheduleRepository = scheduleRepository;
+        this.scheduleEngine = scheduleEngine;
+        this.executor = executor;
+    }
+
+    public Simulation simulate(Long loanId, Long customerId, List<Scenario> scenarios) {
+        if (scenarios == null || scenarios.isEmpty() || scenarios.size() > MAX_SCENARIOS) {
+            throw new ValidationException("Between 1 and " + MAX_SCENARIOS + " scenarios are required");
+        }
+        LoanHeaderCache.LoanHeader loan = loanHeaderCache.get(loanId);
+        if (!loan.customerId().equals(customerId)) {
+            throw new ForbiddenException("Access denied to this loan");
+        }
+        if (loan.status() == Loan.LoanStatus.CLOSED) {
+            throw new ValidationException("Cannot simulate payments on a closed loan");
+        }
+        List<Scenario> normalized = scenarios.stream().map(Scenario::normalized).toList();
+
+        List<OpenInstallment> open = scheduleRepository.findOpenInstallments(loanId);
+        if (open.isEmpty()) {
+            throw new ValidationException("Loan has no open installments");
+        }
+        LocalDate lastDueDate = open.get(open.size() - 1).dueDate();
+        if (normalized.stream().anyMatch(s -> s.lumpSumDate() != null && s.lumpSumDate().isAfter(lastDueDate))) {
+            throw new ValidationException("Lump sum date must be on or before the last due date " + lastDueDate);
+        }
+
+        Projection baseline = project(scheduleEngine, loan, open, Scenario.BASELINE);
+        List<CompletableFuture<ScenarioResult>> futures = normalized.stream()
+                .map(s -> CompletableFuture.supplyAsync(
+                        () -> ScenarioResult.of(s, project(scheduleEngine, loan, open, s), baseline), executor))
+                .toList();
+        return new Simulation(loanId, loan.currency(), baseline,
+                futures.stream().map(CompletableFuture::join).toList());
+    }
+
+    static Projection project(ScheduleEngine engine, LoanHeaderCache.LoanHeader loan, List<OpenInstallment> open,
+                              Scenario scenario) {
+        List<OpenInstallment> schedule = new ArrayList<>(open);
+        BigDecimal balance = loan.outstandingPrincipal();
+        // Accrued interest is taken first, with the first payment
+        BigDecimal interest = loan.accruedInterest();
+        boolean lumpPending = scenario.lumpSum() != null;
+        int installments = 0;
+        LocalDate payoffDate = null;
+
+        for (int k = 0; k < schedule.size(); k++) {
+            OpenInstallment due = schedule.get(k);
+            InstallmentAllocation split = InstallmentAllocation.of(
+                    due.interestDue(), due.principalDue(), due.amountPaid(), due.remainingDue());
+            interest = interest.add(split.toInterest());
+            balance = balance.subtract(split.toPrincipal());
+            installments++;
+            payoffDate = due.dueDate();
+
+            BigDecimal extra = scenario.extraMonthly();
+            if (lumpPending && !scenario.lumpSumDate().isAfter(due.dueDate())) {
+                extra = extra.add(scenario.lumpSum());
+                lumpPending = false;
+            }
+            BigDecimal prepaid = extra.min(balance.max(BigDecimal.ZERO));
+            balance = balance.subtract(prepaid);
+            if (balance.signum() <= 0) {
+                break;
+            }
+            if (prepaid.signum() > 0 && k + 1 < schedule.size()) {
+                List<OpenInstallment> tail = schedule.subList(k + 1, schedule.size());
+                List<OpenInstallment> regenerated = reamortize(engine, loan, due, tail, balance, scenario.mode());
+                tail.clear();
+                schedule.addAll(regenerated);
+            }
+        }
+        return new Projection(payoffDate, installments, interest.setScale(SCALE, RoundingMode.HALF_UP));
+    }
+
+    private static List<OpenInstallment> reamortize(ScheduleEngine engine, LoanHeaderCache.LoanHeader loan,
+                                                    OpenInstallment previous, List<OpenInstallment> tail,
+                                                    BigDecimal balance, PrepaymentMode mode) {
+        var installments = mode.regenerate(engine, balance, loan.annualInterestRate(), tail.size(),
+                tail.get(0).totalDue(), previous.dueDate());
+        List<OpenInstallment> result = new ArrayList<>(installments.size());
+        for (var i : installments) {
+            result.add(new OpenInstallment(previous.installmentNumber() + i.installmentNumber(), i.dueDate(),
+                    i.principalDue(), i.interestDue(), null));
+        }
+        return result;
+    }
+
+    /**
+     * An extra {@code extraMonthly} with every installment and/or one {@code lumpSum} on {@code lumpSumDate}.
+     * The mode defaults to {@link PrepaymentMode#REDUCE_TERM}.
+     */
+    public record Scenario(String name, BigDecimal extraMonthly, BigDecimal lumpSum, LocalDate lumpSumDate,
+                           PrepaymentMode mode) {
+
+        static final Scenario BASELINE =
+                new Scenario("baseline", BigDecimal.ZERO.setScale(SCALE), null, null, PrepaymentMode.REDUCE_TERM);
+
+        Scenario normalized() {
+            BigDecimal extra = extraMonthly == null ? BigDecimal.ZERO : extraMonthly;
+            if (extra.signum() < 0 || (lumpSum != null && lumpSum.signum() <= 0)) {
+                throw new ValidationException("Scenario amounts must be positive");
+            }
+            if ((lumpSum == null) != (lumpSumDate == null)) {
+                throw new ValidationException("A lump sum needs both an amount and a date");
+            }
+            if (extra.signum() == 0 && lumpSum == null) {
+                throw new ValidationException("A scenario needs an extra monthly amount or a lump sum");
+            }
+            return new Scenario(name, extra.setScale(SCALE, RoundingMode.HALF_UP),
+                    lumpSum == null ? null : lumpSum.setScale(SCALE, RoundingMode.HALF_UP), lumpSumDate,
+                    mode == null ? PrepaymentMode.REDUCE_TERM : mode);
+        }
+    }
+
+    /** Remaining installments until payoff and the interest paid on the way, accrued interest included. */
+    public record Projection(LocalDate payoffDate, int installments, BigDecimal totalInterest) {}
+
+    public record ScenarioResult(String name, PrepaymentMode mode, LocalDate payoffDate, int installments,
+                                 BigDecimal totalInterest, BigDecimal interestSaved, int monthsSaved) {
+
+        static ScenarioResult of(Scenario scenario, Projection projection, Projection baseline) {
+            return new ScenarioResult(scenario.name(), scenario.mode(), projection.payoffDate(),
+                    projection.installments(), projection.totalInterest(),
+                    baseline.totalInterest().subtract(projection.totalInterest()),
+                    baseline.installments() - projection.installments());
+        }
+    }
+
+    public record Simulation(Long loanId, String currency, Projection baseline, List<ScenarioResult> scenarios) {}
+}
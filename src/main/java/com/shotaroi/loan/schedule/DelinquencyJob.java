@@ -0,0 +1,90 @@
+package com.shotaroi.loan.schedule;
+
+import com.shotaroi.loan.job.CheckpointedChunkRunner;
+import com.shotaroi.loan.job.JobCheckpoint;
+import com.shotaroi.loan.job.JobCheckpointRepository;
+import com.shotaroi.loan.loan.LoanRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Nightly sweep that marks overdue installments LATE across all ACTIVE loans.
+ * Loans are walked by {@link CheckpointedChunkRunner}; each chunk locks its loans and marks them in its own
+ * transaction, and an interrupted run resumes where it stopped on the same day.
+ */
+@Component
+public class DelinquencyJob {
+
+    static final String JOB_NAME = "delinquency";
+
+    private static final Logger log = LoggerFactory.getLogger(DelinquencyJob.class);
+
+    private final ScheduleService scheduleService;
+    private final CheckpointedChunkRunner<Long> runner;
+    private final Counter installmentsMarked;
+
+    public DelinquencyJob(LoanRepository loanRepository,
+                          ScheduleService scheduleService,
+                          JobCheckpointRepository checkpointRepository,
+                          MeterRegistry meterRegistry,
+                          @Value("${app.jobs.delinquency.chunk-size:500}") int chunkSize,
+                          @Value("${app.jobs.delinquency.parallelism:4}") int parallelism) {
+        this.scheduleService = scheduleService;
+        this.runner = new CheckpointedChunkRunner<>(JOB_NAME, "delinquency.job", checkpointRepository,
+                meterRegistry, (afterId, limit) -> loanRepository.findActiveIdsAfter(afterId, Limit.of(limit)),
+                chunkSize, parallelism, 0L, Long::sum, this::sweep);
+        this.installmentsMarked = Counter.builder("delinquency.job.installments.marked")
+                .description("Installments moved from DUE to LATE")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.jobs.delinquency.cron:0 15 0 * * *}")
+    public void scheduledRun() {
+        try {
+            run(LocalDate.now());
+        } catch (RuntimeException e) {
+            log.error("Delinquency job failed; it will resume from the checkpoint", e);
+        }
+    }
+
+    /**
+     * Runs (or resumes) the sweep for {@code today}. Returns empty when a run is already in progress.
+     */
+    public Optional<RunResult> run(LocalDate today) {
+        return runner.run(today).map(r -> new RunResult(r.runDate(), r.loansProcessed(), r.total(), r.lastId(),
+                r.durationMs(), r.loansPerSecond()));
+    }
+
+    public Optional<JobCheckpoint> getCheckpoint() {
+        return runner.getCheckpoint();
+    }
+
+    public boolean isRunning() {
+        return runner.isRunning();
+    }
+
+    private Long sweep(List<Long> loanIds, LocalDate today) {
+        int marked = scheduleService.refreshLateStatusForLoans(loanIds, today);
+        installmentsMarked.increment(marked);
+        return (long) marked;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runner.shutdown();
+    }
+
+    public record RunResult(LocalDate runDate, long loansProcessed, long installmentsMarked,
+                            long lastLoanId, long durationMs, double loansPerSecond) {}
+}
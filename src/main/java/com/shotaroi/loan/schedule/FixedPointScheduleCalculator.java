@@ -0,0 +1,155 @@
+package com.shotaroi.loan.schedule;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Amortization schedule on scaled long minor units (cents), producing exactly the same installments as
+ * {@link ScheduleCalculator#generateSchedule}.
+ * The monthly rate (scale 16) and the level payment are derived once with BigDecimal, using the same
+ * operations as the BigDecimal calculator; the per-installment loop is pure long arithmetic with HALF_UP rounding.
+ * Principals with more than 2 decimals, or outside the long range, are delegated to the BigDecimal calculator.
+ */
+public final class FixedPointScheduleCalculator {
+
+    private static final int SCALE = 2;
+    private static final int RATE_SCALE = 16;
+    private static final RoundingMode ROUNDING = RoundingMode.HALF_UP;
+    /** 1.0 at rate scale (10^16). */
+    private static final long RATE_ONE = 10_000_000_000_000_000L;
+    /** One cent at rate scale (10^14). */
+    private static final long CENT = 100_000_000_000_000L;
+    private static final long HALF_CENT = CENT / 2;
+    private static final BigInteger CENT_BIG = BigInteger.valueOf(CENT);
+
+    private FixedPointScheduleCalculator() {}
+
+    public static List<ScheduleCalculator.ScheduleInstallment> generateSchedule(
+            BigDecimal principal,
+            BigDecimal annualInterestRate,
+            int termMonths,
+            LocalDate startDate) {
+
+        if (principal.signum() <= 0 || annualInterestRate.signum() < 0
+                || principal.stripTrailingZeros().scale() > SCALE) {
+            return ScheduleCalculator.generateSchedule(principal, annualInterestRate, termMonths, startDate);
+        }
+
+        try {
+            return generateInCents(principal, annualInterestRate, termMonths, startDate);
+        } catch (ArithmeticException e) {
+            return ScheduleCalculator.generateSchedule(principal, annualInterestRate, termMonths, startDate);
+        }
+    }
+
+    private static List<ScheduleCalculator.ScheduleInstallment> generateInCents(
+            BigDecimal principal,
+            BigDecimal annualInterestRate,
+            int termMonths,
+            LocalDate startDate) {
+
+        long principalCents = principal.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+        BigDecimal rate = annualInterestRate.divide(BigDecimal.valueOf(12), RATE_SCALE, ROUNDING);
+        long monthlyRate = rate.unscaledValue().longValueExact();
+
+        long paymentCents;
+        long paymentFraction;
+        if (monthlyRate == 0) {
+            paymentCents = divideHalfUp(principalCents, termMonths);
+            paymentFraction = 0;
+        } else {
+            BigDecimal onePlusR = BigDecimal.ONE.add(rate);
+            BigDecimal factor = BigDecimal.ONE.subtract(
+                    onePlusR.pow(-termMonths, new java.math.MathContext(16)));
+            BigDecimal payment = principal.multiply(rate).divide(factor, RATE_SCALE, ROUNDING);
+            BigInteger[] split = payment.unscaledValue().divideAndRemainder(CENT_BIG);
+            paymentCents = split[0].longValueExact();
+            paymentFraction = split[1].longValueExact();
+        }
+
+        List<ScheduleCalculator.ScheduleInstallment> installments = new ArrayList<>(termMonths);
+        long remaining = principalCents;
+        long principalSum = 0;
+        LocalDate dueDate = startDate.plusMonths(1);
+
+        for (int i = 1; i <= termMonths; i++) {
+            long interestDue = multiplyRateHalfUp(remaining, monthlyRate);
+            long principalDue;
+
+            if (i == termMonths) {
+                principalDue = remaining;
+            } else {
+                long wholeCents = paymentCents - interestDue;
+                principalDue = wholeCents + (roundsUp(wholeCents, paymentFraction) ? 1 : 0);
+                remaining -= principalDue;
+            }
+            principalSum += principalDue;
+            installments.add(installment(i, dueDate, principalDue, interestDue));
+            dueDate = dueDate.plusMonths(1);
+        }
+
+        long delta = principalCents - principalSum;
+        if (delta != 0) {
+            ScheduleCalculator.ScheduleInstallment last = installments.get(installments.size() - 1);
+            long adjustedPrincipal = last.principalDue().unscaledValue().longValue() + delta;
+            installments.set(installments.size() - 1, installment(last.installmentNumber(), last.dueDate(),
+                    adjustedPrincipal, last.interestDue().unscaledValue().longValue()));
+        }
+
+        return installments;
+    }
+
+    private static ScheduleCalculator.ScheduleInstallment installment(int number, LocalDate dueDate,
+                                                                      long principalCents, long interestCents) {
+        return new ScheduleCalculator.ScheduleInstallment(
+                number,
+                dueDate,
+                BigDecimal.valueOf(principalCents, SCALE),
+                BigDecimal.valueOf(interestCents, SCALE),
+                BigDecimal.valueOf(principalCents + interestCents, SCALE));
+    }
+
+    /**
+     * HALF_UP of (wholeCents + fraction / 10^14) to whole cents, with 0 <= fraction < 10^14.
+     * Ties round away from zero, so a negative value only rounds up past the half.
+     */
+    private static boolean roundsUp(long wholeCents, long fraction) {
+        return wholeCents >= 0 ? fraction >= HALF_CENT : fraction > HALF_CENT;
+    }
+
+    /** HALF_UP of cents * rate / 10^16, i.e. BigDecimal cents.multiply(rate).setScale(2, HALF_UP). */
+    private static long multiplyRateHalfUp(long cents, long rate) {
+        if (cents < 0) {
+            return -multiplyRateHalfUp(-cents, rate);
+        }
+        long hi = Math.multiplyHigh(cents, rate);
+        long lo = cents * rate;
+        if (hi == 0 && lo >= 0) {
+            long q = lo / RATE_ONE;
+            long r = lo % RATE_ONE;
+            return r >= RATE_ONE - r ? q + 1 : q;
+        }
+        if (hi >= RATE_ONE / 2) {
+            throw new ArithmeticException("Interest overflows long cents");
+        }
+        // 128-by-64 long division, one byte at a time: r < 10^16 < 2^54, so r << 8 stays below 2^62
+        long q = 0;
+        long r = hi;
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            r = (r << 8) | ((lo >>> shift) & 0xFF);
+            q = (q << 8) | (r / RATE_ONE);
+            r = r % RATE_ONE;
+        }
+        return r >= RATE_ONE - r ? q + 1 : q;
+    }
+
+    private static long divideHalfUp(long dividend, long divisor) {
+        long q = dividend / divisor;
+        long r = dividend % divisor;
+        return r >= divisor - r ? q + 1 : q;
+    }
+}
@@ -0,0 +1,87 @@
+package com.shotaroi.loan.schedule;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Denormalized schedule aggregates of one loan. Written when the schedule is created and adjusted by
+ * deltas afterwards (see {@link LoanScheduleSummaryRepository}), never recomputed on read.
+ */
+@Entity
+@Table(name = "loan_schedule_summary")
+public class LoanScheduleSummary {
+
+    @Id
+    @Column(name = "loan_id")
+    private Long loanId;
+
+    @Column(name = "total_paid", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalPaid;
+
+    @Column(name = "total_remaining", nullable = false, precision = 19, scale = 2)
+    private BigDecimal totalRemaining;
+
+    @Column(name = "paid_count", nullable = false)
+    private int paidCount;
+
+    @Column(name = "pending_count", nullable = false)
+    private int pendingCount;
+
+    @Column(name = "late_count", nullable = false)
+    private int lateCount;
+
+    @Column(name = "next_due_date")
+    private LocalDate nextDueDate;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
+    protected LoanScheduleSummary() {}
+
+    /** Summary of a freshly generated schedule: nothing paid, every installment pending. */
+    public static LoanScheduleSummary forNewSchedule(Long loanId, List<RepaymentSchedule> installments) {
+        LoanScheduleSummary summary = new LoanScheduleSummary();
+        summary.loanId = loanId;
+        summary.totalPaid = BigDecimal.ZERO.setScale(2);
+        summary.totalRemaining = installments.stream()
+                .map(RepaymentSchedule::getTotalDue)
+                .reduce(BigDecimal.ZERO.setScale(2), BigDecimal::add);
+        summary.pendingCount = installments.size();
+        summary.nextDueDate = installments.isEmpty() ? null : installments.get(0).getDueDate();
+        return summary;
+    }
+
+    public Long getLoanId() {
+        return loanId;
+    }
+
+    public BigDecimal getTotalPaid() {
+        return totalPaid;
+    }
+
+    public BigDecimal getTotalRemaining() {
+        return totalRemaining;
+    }
+
+    public int getPaidCount() {
+        return paidCount;
+    }
+
+    public int getPendingCount() {
+        return pendingCount;
+    }
+
+    public int getLateCount() {
+        return lateCount;
+    }
+
+    public LocalDate getNextDueDate() {
+        return nextDueDate;
+    }
+}
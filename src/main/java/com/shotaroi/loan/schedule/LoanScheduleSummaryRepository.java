@@ -0,0 +1,39 @@
+package com.shotaroi.loan.schedule;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public interface LoanScheduleSummaryRepository extends JpaRepository<LoanScheduleSummary, Long> {
+
+    /**
+     * Applies one payment's effect in a single statement: {@code applied} came off the open installments,
+     * {@code newlyPaid} of them (holding {@code newlyPaidAmount}, {@code lateCleared} of them LATE) became PAID.
+     * After a prepayment, re-amortizing the open installments lowered their total by {@code released} and
+     * deleted {@code removed} of them; both are zero otherwise.
+     * Must run in the transaction that holds the loan lock.
+     */
+    @Modifying
+    @Query("""
+            update LoanScheduleSummary s set
+                s.totalPaid = s.totalPaid + :newlyPaidAmount,
+                s.totalRemaining = s.totalRemaining - :applied - :released,
+                s.paidCount = s.paidCount + :newlyPaid,
+                s.pendingCount = s.pendingCount - :newlyPaid - :removed,
+                s.lateCount = s.lateCount - :lateCleared,
+                s.nextDueDate = :nextDueDate,
+                s.updatedAt = CURRENT_TIMESTAMP
+            where s.loanId = :loanId""")
+    int applyPayment(@Param("loanId") Long loanId,
+                     @Param("applied") BigDecimal applied,
+                     @Param("newlyPaidAmount") BigDecimal newlyPaidAmount,
+                     @Param("newlyPaid") int newlyPaid,
+                     @Param("lateCleared") int lateCleared,
+                     @Param("released") BigDecimal released,
+                     @Param("removed") int removed,
+                     @Param("nextDueDate") LocalDate nextDueDate);
+}
@@ -0,0 +1,26 @@
+package com.shotaroi.loan.schedule;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Read-only copy of an unpaid installment, for calculations that must not touch managed entities.
+ */
+public record OpenInstallment(int installmentNumber, LocalDate dueDate, BigDecimal principalDue,
+                              BigDecimal interestDue, BigDecimal amountPaid) {
+
+    public OpenInstallment {
+        if (amountPaid == null) {
+            amountPaid = BigDecimal.ZERO.setScale(2);
+        }
+    }
+
+    public BigDecimal totalDue() {
+        return principalDue.add(interestDue);
+    }
+
+    /** What is still owed on this installment. */
+    public BigDecimal remainingDue() {
+        return totalDue().subtract(amountPaid).max(BigDecimal.ZERO);
+    }
+}
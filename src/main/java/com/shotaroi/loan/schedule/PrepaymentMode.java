@@ -0,0 +1,75 @@
+package com.shotaroi.loan.schedule;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * How the installments after a principal prepayment are re-amortized, with the same {@link ScheduleEngine}
+ * that generated the loan's schedule.
+ * Both modes regenerate from the remaining principal, so the interest rows shrink with it; the returned
+ * installments are numbered from 1 and fall due monthly after {@code previousDueDate}.
+ */
+public enum PrepaymentMode {
+
+    /** Keeps the installment amount (or lowers it slightly) and pays the loan off sooner. */
+    REDUCE_TERM {
+        @Override
+        public List<ScheduleCalculator.ScheduleInstallment> regenerate(
+                ScheduleEngine engine, BigDecimal outstandingPrincipal, BigDecimal annualInterestRate, int remainingTerm,
+                BigDecimal currentInstallment, LocalDate previousDueDate) {
+            int term = shortestTerm(outstandingPrincipal, annualInterestRate, remainingTerm, currentInstallment);
+            var installments = engine.generateSchedule(
+                    outstandingPrincipal, annualInterestRate, term, previousDueDate);
+            // The estimate can be a cent short after rounding; one more month brings the amount back under
+            while (term < remainingTerm && installments.get(0).totalDue().compareTo(currentInstallment) > 0) {
+                term++;
+                installments = engine.generateSchedule(
+                        outstandingPrincipal, annualInterestRate, term, previousDueDate);
+            }
+            return installments;
+        }
+    },
+
+    /** Keeps the end date and lowers the installments. */
+    REDUCE_INSTALLMENT {
+        @Override
+        public List<ScheduleCalculator.ScheduleInstallment> regenerate(
+                ScheduleEngine engine, BigDecimal outstandingPrincipal, BigDecimal annualInterestRate, int remainingTerm,
+                BigDecimal currentInstallment, LocalDate previousDueDate) {
+            return engine.generateSchedule(
+                    outstandingPrincipal, annualInterestRate, remainingTerm, previousDueDate);
+        }
+    };
+
+    public abstract List<ScheduleCalculator.ScheduleInstallment> regenerate(
+            ScheduleEngine engine, BigDecimal outstandingPrincipal, BigDecimal annualInterestRate, int remainingTerm,
+            BigDecimal currentInstallment, LocalDate previousDueDate);
+
+    /**
+     * Smallest term whose level payment does not exceed {@code installment}, from the annuity formula
+     * n = -ln(1 - rP/A) / ln(1 + r); the full remaining term when the installment no longer covers the interest.
+     */
+    static int shortestTerm(BigDecimal principal, BigDecimal annualInterestRate, int remainingTerm,
+                            BigDecimal installment) {
+        double p = principal.doubleValue();
+        double a = installment.doubleValue();
+        double r = annualInterestRate.doubleValue() / 12;
+        if (a <= 0) {
+            return remainingTerm;
+        }
+        double n;
+        if (r == 0) {
+            n = p / a;
+        } else {
+            double ratio = r * p / a;
+            if (ratio >= 1) {
+                return remainingTerm;
+            }
+            n = -Math.log1p(-ratio) / Math.log1p(r);
+        }
+        // Tolerance so an exact whole number of months is not pushed up by floating-point error
+        int term = (int) Math.ceil(n - 1e-9);
+        return Math.max(1, Math.min(remainingTerm, term));
+    }
+}
@@ -1,16 +1,19 @@
 package com.shotaroi.loan.schedule;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
 @Table(name = "repayment_schedule")
+@DynamicUpdate
 public class RepaymentSchedule {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "repayment_schedule_seq")
+    @SequenceGenerator(name = "repayment_schedule_seq", sequenceName = "repayment_schedule_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "loan_id", nullable = false)
@@ -97,6 +100,24 @@ public class RepaymentSchedule {
         this.amountPaid = amountPaid;
     }
 
+    /**
+     * Replaces the amounts and due date of an open installment after a prepayment re-amortized the schedule.
+     * Returns false, leaving the row clean so no UPDATE is issued, when nothing changed.
+     */
+    public boolean reschedule(LocalDate dueDate, BigDecimal principalDue, BigDecimal interestDue, BigDecimal totalDue) {
+        if (this.dueDate.equals(dueDate)
+                && this.principalDue.compareTo(principalDue) == 0
+                && this.interestDue.compareTo(interestDue) == 0
+                && this.totalDue.compareTo(totalDue) == 0) {
+            return false;
+        }
+        this.dueDate = dueDate;
+        this.principalDue = principalDue;
+        this.interestDue = interestDue;
+        this.totalDue = totalDue;
+        return true;
+    }
+
     public BigDecimal getRemainingDue() {
         return totalDue.subtract(getAmountPaid());
     }
@@ -1,14 +1,97 @@
 package com.shotaroi.loan.schedule;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 public interface RepaymentScheduleRepository extends JpaRepository<RepaymentSchedule, Long> {
 
     List<RepaymentSchedule> findByLoanIdOrderByInstallmentNumberAsc(Long loanId);
 
     Page<RepaymentSchedule> findByLoanIdOrderByInstallmentNumberAsc(Long loanId, Pageable pageable);
+
+    /**
+     * Unpaid installments, oldest first, fetched a few rows at a time so the caller can stop reading early.
+     * The inlined PAID literal lets PostgreSQL use the partial index idx_repayment_schedule_open.
+     * Must be called inside a transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "4"))
+    @Query("""
+            select s from RepaymentSchedule s
+            where s.loanId = :loanId
+              and s.status <> com.shotaroi.loan.schedule.RepaymentSchedule.InstallmentStatus.PAID
+            order by s.installmentNumber""")
+    Stream<RepaymentSchedule> streamUnpaidByLoanId(@Param("loanId") Long loanId);
+
+    /** Unpaid installments, oldest first, as detached copies; nothing enters the persistence context. */
+    @Query("""
+            select new com.shotaroi.loan.schedule.OpenInstallment(
+                s.installmentNumber, s.dueDate, s.principalDue, s.interestDue, s.amountPaid)
+            from RepaymentSchedule s
+            where s.loanId = :loanId
+              and s.status <> com.shotaroi.loan.schedule.RepaymentSchedule.InstallmentStatus.PAID
+            order by s.installmentNumber""")
+    List<OpenInstallment> findOpenInstallments(@Param("loanId") Long loanId);
+
+    /**
+     * Interest owed on the open installments as of {@code date}: the unpaid interest of those due by then or
+     * already partly paid (payments cover interest first), and the next due date after it. One aggregate row.
+     */
+    @Query("""
+            select coalesce(sum(case
+                       when (s.dueDate <= :date or s.amountPaid > 0) and s.interestDue > s.amountPaid
+                       then s.interestDue - s.amountPaid else 0 end), 0) as interestDue,
+                   min(case when s.dueDate > :date then s.dueDate end) as nextDueDate
+            from RepaymentSchedule s
+            where s.loanId = :loanId
+              and s.status <> com.shotaroi.loan.schedule.RepaymentSchedule.InstallmentStatus.PAID""")
+    OpenInterest findOpenInterest(@Param("loanId") Long loanId, @Param("date") LocalDate date);
+
+    interface OpenInterest {
+        BigDecimal getInterestDue();
+
+        LocalDate getNextDueDate();
+    }
+
+    /*
+     * Late marking: DUE installments past their due date become LATE, and each affected loan's
+     * loan_schedule_summary.late_count grows by exactly the number of rows marked, in the same statement.
+     * Each returns the number of installments marked. Callers must hold the loan row locks first (see
+     * ScheduleService): a payment reads the installments under that lock, and would otherwise not see a row
+     * turn LATE underneath it and leave late_count too high once it pays the row.
+     */
+    @Query(nativeQuery = true, value = """
+            WITH marked AS (
+                UPDATE repayment_schedule SET status = 'LATE'
+                WHERE loan_id = :loanId AND status = 'DUE' AND due_date < :today
+                RETURNING loan_id),
+            counted AS (
+                UPDATE loan_schedule_summary s SET late_count = s.late_count + m.n, updated_at = CURRENT_TIMESTAMP
+                FROM (SELECT loan_id, count(*) AS n FROM marked GROUP BY loan_id) m
+                WHERE s.loan_id = m.loan_id)
+            SELECT count(*) FROM marked""")
+    int markLateByLoanId(@Param("loanId") Long loanId, @Param("today") LocalDate today);
+
+    @Query(nativeQuery = true, value = """
+            WITH marked AS (
+                UPDATE repayment_schedule SET status = 'LATE'
+                WHERE loan_id IN (:loanIds) AND status = 'DUE' AND due_date < :today
+                RETURNING loan_id),
+            counted AS (
+                UPDATE loan_schedule_summary s SET late_count = s.late_count + m.n, updated_at = CURRENT_TIMESTAMP
+                FROM (SELECT loan_id, count(*) AS n FROM marked GROUP BY loan_id) m
+                WHERE s.loan_id = m.loan_id)
+            SELECT count(*) FROM marked""")
+    int markLateByLoanIds(@Param("loanIds") Collection<Long> loanIds, @Param("today") LocalDate today);
 }
@@ -0,0 +1,100 @@
+package com.shotaroi.loan.schedule;
+
+import com.shotaroi.loan.audit.AuditService;
+import com.shotaroi.loan.security.SecurityUser;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/admin/schedule")
+@Tag(name = "Admin - Schedule")
+public class ScheduleAdminController {
+
+    private final ScheduleService scheduleService;
+    private final DelinquencyJob delinquencyJob;
+    private final ScheduleSummaryReconciliationJob reconciliationJob;
+    private final AuditService auditService;
+
+    public ScheduleAdminController(ScheduleService scheduleService,
+                                   DelinquencyJob delinquencyJob,
+                                   ScheduleSummaryReconciliationJob reconciliationJob,
+                                   AuditService auditService) {
+        this.scheduleService = scheduleService;
+        this.delinquencyJob = delinquencyJob;
+        this.reconciliationJob = reconciliationJob;
+        this.auditService = auditService;
+    }
+
+    @PostMapping("/refresh-late")
+    @Operation(summary = "Mark overdue installments LATE for one customer or the whole portfolio (ADMIN)")
+    public ResponseEntity<LateRefreshResponse> refreshLate(
+            @RequestParam(required = false) Long customerId,
+            @AuthenticationPrincipal SecurityUser user) {
+
+        int markedLate;
+        if (customerId != null) {
+            markedLate = scheduleService.refreshLateStatusForCustomer(customerId);
+        } else {
+            // The portfolio goes through the delinquency sweep: one transaction per chunk of locked loans
+            var result = delinquencyJob.run(LocalDate.now());
+            if (result.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.CONFLICT).build();
+            }
+            markedLate = Math.toIntExact(result.get().installmentsMarked());
+        }
+        String scope = customerId != null ? "customer:" + customerId : "portfolio";
+
+        auditService.log(user.getId(), "LATE_STATUS_REFRESHED", "scope=%s, markedLate=%d".formatted(scope, markedLate));
+
+        return ResponseEntity.ok(new LateRefreshResponse(scope, markedLate));
+    }
+
+    @PostMapping("/delinquency-job")
+    @Operation(summary = "Run or resume today's delinquency sweep over all ACTIVE loans (ADMIN)")
+    public ResponseEntity<DelinquencyJob.RunResult> runDelinquencyJob(@AuthenticationPrincipal SecurityUser user) {
+        var result = delinquencyJob.run(LocalDate.now());
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        auditService.log(user.getId(), "DELINQUENCY_JOB_RUN",
+                "loans=%d, markedLate=%d".formatted(result.get().loansProcessed(), result.get().installmentsMarked()));
+        return ResponseEntity.ok(result.get());
+    }
+
+    @GetMapping("/delinquency-job")
+    @Operation(summary = "Delinquency sweep progress (ADMIN)")
+    public ResponseEntity<DelinquencyJobStatusResponse> delinquencyJobStatus() {
+        var checkpoint = delinquencyJob.getCheckpoint();
+        return ResponseEntity.ok(new DelinquencyJobStatusResponse(
+                delinquencyJob.isRunning(),
+                checkpoint.map(c -> c.getRunDate().toString()).orElse(null),
+                checkpoint.map(c -> c.getLastId()).orElse(null),
+                checkpoint.map(c -> c.isCompleted()).orElse(false),
+                checkpoint.map(c -> c.getUpdatedAt().toString()).orElse(null)));
+    }
+
+    @PostMapping("/summary-reconciliation")
+    @Operation(summary = "Verify (and repair) every loan's schedule summary against its installments (ADMIN)")
+    public ResponseEntity<ScheduleSummaryReconciliationJob.RunResult> reconcileSummaries(
+            @AuthenticationPrincipal SecurityUser user) {
+        var result = reconciliationJob.run();
+        if (result.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+        auditService.log(user.getId(), "SCHEDULE_SUMMARY_RECONCILED",
+                "loans=%d, mismatches=%d, repaired=%d".formatted(
+                        result.get().loansChecked(), result.get().mismatches(), result.get().repaired()));
+        return ResponseEntity.ok(result.get());
+    }
+
+    public record LateRefreshResponse(String scope, int markedLate) {}
+
+    public record DelinquencyJobStatusResponse(boolean running, String runDate, Long lastLoanId,
+                                               boolean completed, String updatedAt) {}
+}
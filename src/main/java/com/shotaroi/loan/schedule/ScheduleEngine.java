@@ -0,0 +1,32 @@
+package com.shotaroi.loan.schedule;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Amortization engine used when a loan is created and when a prepayment re-amortizes its schedule, selected
+ * with {@code app.schedule.engine}.
+ * Both engines produce identical installments.
+ */
+public enum ScheduleEngine {
+
+    BIG_DECIMAL {
+        @Override
+        public List<ScheduleCalculator.ScheduleInstallment> generateSchedule(
+                BigDecimal principal, BigDecimal annualInterestRate, int termMonths, LocalDate startDate) {
+            return ScheduleCalculator.generateSchedule(principal, annualInterestRate, termMonths, startDate);
+        }
+    },
+
+    FIXED_POINT {
+        @Override
+        public List<ScheduleCalculator.ScheduleInstallment> generateSchedule(
+                BigDecimal principal, BigDecimal annualInterestRate, int termMonths, LocalDate startDate) {
+            return FixedPointScheduleCalculator.generateSchedule(principal, annualInterestRate, termMonths, startDate);
+        }
+    };
+
+    public abstract List<ScheduleCalculator.ScheduleInstallment> generateSchedule(
+            BigDecimal principal, BigDecimal annualInterestRate, int termMonths, LocalDate startDate);
+}
@@ -1,28 +1,60 @@
 package com.shotaroi.loan.schedule;
 
+import com.shotaroi.loan.loan.LoanRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Service
 public class ScheduleService {
 
+    private static final Logger log = LoggerFactory.getLogger(ScheduleService.class);
+
+    /** Loans per late-marking statement, keeping the IN list well below the bind parameter limit. */
+    private static final int MARK_CHUNK_SIZE = 1000;
+
     private final RepaymentScheduleRepository scheduleRepository;
+    private final LoanScheduleSummaryRepository summaryRepository;
+    private final LoanRepository loanRepository;
 
-    public ScheduleService(RepaymentScheduleRepository scheduleRepository) {
+    public ScheduleService(RepaymentScheduleRepository scheduleRepository,
+                           LoanScheduleSummaryRepository summaryRepository,
+                           LoanRepository loanRepository) {
         this.scheduleRepository = scheduleRepository;
+        this.summaryRepository = summaryRepository;
+        this.loanRepository = loanRepository;
     }
 
+    /**
+     * Reads the materialized summary row by primary key. Falls back to summing the installments if the
+     * row is missing, which the reconciliation job then repairs.
+     */
     public ScheduleSummary getSummary(Long loanId) {
+        return summaryRepository.findById(loanId)
+                .map(s -> new ScheduleSummary(s.getTotalPaid(), s.getTotalRemaining(),
+                        Optional.ofNullable(s.getNextDueDate()), s.getPaidCount(), s.getPendingCount(),
+                        s.getLateCount()))
+                .orElseGet(() -> {
+                    log.warn("No schedule summary row for loan {}, aggregating installments", loanId);
+                    return aggregate(loanId);
+                });
+    }
+
+    private ScheduleSummary aggregate(Long loanId) {
         List<RepaymentSchedule> installments = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loanId);
 
         BigDecimal totalPaid = BigDecimal.ZERO.setScale(2);
         BigDecimal totalRemaining = BigDecimal.ZERO.setScale(2);
         int paidCount = 0;
         int pendingCount = 0;
+        int lateCount = 0;
         Optional<LocalDate> nextDueDate = Optional.empty();
 
         for (RepaymentSchedule s : installments) {
@@ -32,28 +64,52 @@ public class ScheduleService {
             } else {
                 totalRemaining = totalRemaining.add(s.getRemainingDue());
                 pendingCount++;
+                if (s.getStatus() == RepaymentSchedule.InstallmentStatus.LATE) {
+                    lateCount++;
+                }
                 if (nextDueDate.isEmpty()) {
                     nextDueDate = Optional.of(s.getDueDate());
                 }
             }
         }
 
-        return new ScheduleSummary(totalPaid, totalRemaining, nextDueDate, paidCount, pendingCount);
+        return new ScheduleSummary(totalPaid, totalRemaining, nextDueDate, paidCount, pendingCount, lateCount);
     }
 
-    public void refreshLateStatus(Long loanId) {
-        List<RepaymentSchedule> installments = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loanId);
-        LocalDate today = LocalDate.now();
+    /*
+     * Late marking locks the loan rows first, in id order, like a payment does before it reads the
+     * installments; the marking statement then runs after any in-flight payment on those loans has committed.
+     */
+    @Transactional
+    public int refreshLateStatus(Long loanId) {
+        loanRepository.lockByIds(List.of(loanId));
+        int marked = scheduleRepository.markLateByLoanId(loanId, LocalDate.now());
+        log.debug("Late status refreshed: loanId={}, markedLate={}", loanId, marked);
+        return marked;
+    }
 
-        for (RepaymentSchedule s : installments) {
-            if (s.getStatus() == RepaymentSchedule.InstallmentStatus.DUE
-                    && s.getDueDate().isBefore(today)) {
-                s.setStatus(RepaymentSchedule.InstallmentStatus.LATE);
-                scheduleRepository.save(s);
-            }
+    @Transactional
+    public int refreshLateStatusForLoans(Collection<Long> loanIds, LocalDate today) {
+        return markLate(loanRepository.lockByIds(loanIds), today);
+    }
+
+    @Transactional
+    public int refreshLateStatusForCustomer(Long customerId) {
+        int marked = markLate(loanRepository.lockByCustomerId(customerId), LocalDate.now());
+        log.info("Late status refreshed: customerId={}, markedLate={}", customerId, marked);
+        return marked;
+    }
+
+    private int markLate(List<Long> lockedLoanIds, LocalDate today) {
+        int marked = 0;
+        for (int from = 0; from < lockedLoanIds.size(); from += MARK_CHUNK_SIZE) {
+            List<Long> chunk = lockedLoanIds.subList(from, Math.min(from + MARK_CHUNK_SIZE, lockedLoanIds.size()));
+            marked += scheduleRepository.markLateByLoanIds(chunk, today);
         }
+        return marked;
     }
 
     public record ScheduleSummary(BigDecimal totalPaid, BigDecimal totalRemaining,
-                                  Optional<LocalDate> nextDueDate, int paidCount, int pendingCount) {}
+                                  Optional<LocalDate> nextDueDate, int paidCount, int pendingCount,
+                                  int lateCount) {}
 }
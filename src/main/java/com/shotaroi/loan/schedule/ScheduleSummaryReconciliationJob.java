@@ -0,0 +1,161 @@
+package com.shotaroi.loan.schedule;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Re-derives every loan's schedule aggregates from repayment_schedule and compares them with
+ * loan_schedule_summary, one keyset chunk of loans per statement. Mismatched (or missing) rows are
+ * logged and, when {@code repair} is on, rewritten from the installments while the loan rows are
+ * locked, so a payment cannot interleave with the fix.
+ */
+@Component
+public class ScheduleSummaryReconciliationJob {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleSummaryReconciliationJob.class);
+
+    private static final String EXPECTED = """
+            SELECT l.id AS loan_id,
+                   COALESCE(sum(r.amount_paid) FILTER (WHERE r.status = 'PAID'), 0) AS total_paid,
+                   COALESCE(sum(r.total_due - COALESCE(r.amount_paid, 0)) FILTER (WHERE r.status <> 'PAID'), 0)
+                       AS total_remaining,
+                   count(r.id) FILTER (WHERE r.status = 'PAID') AS paid_count,
+                   count(r.id) FILTER (WHERE r.status <> 'PAID') AS pending_count,
+                   count(r.id) FILTER (WHERE r.status = 'LATE') AS late_count,
+                   (array_agg(r.due_date ORDER BY r.installment_number) FILTER (WHERE r.status <> 'PAID'))[1]
+                       AS next_due_date
+            FROM loan l
+            LEFT JOIN repayment_schedule r ON r.loan_id = l.id
+            WHERE %s
+            GROUP BY l.id""";
+
+    private static final String MISMATCHES_SQL = "WITH expected AS (" + EXPECTED.formatted("l.id BETWEEN ? AND ?") + """
+            )
+            SELECT e.loan_id FROM expected e
+            LEFT JOIN loan_schedule_summary s ON s.loan_id = e.loan_id
+            WHERE s.loan_id IS NULL
+               OR (s.total_paid, s.total_remaining, s.paid_count, s.pending_count, s.late_count, s.next_due_date)
+                  IS DISTINCT FROM
+                  (e.total_paid, e.total_remaining, e.paid_count, e.pending_count, e.late_count, e.next_due_date)
+            ORDER BY e.loan_id""";
+
+    private static final String REPAIR_SQL = """
+            INSERT INTO loan_schedule_summary
+                (loan_id, total_paid, total_remaining, paid_count, pending_count, late_count, next_due_date)
+            """ + EXPECTED.formatted("l.id = ANY(?)") + """
+
+            ON CONFLICT (loan_id) DO UPDATE SET
+                total_paid = EXCLUDED.total_paid,
+                total_remaining = EXCLUDED.total_remaining,
+                paid_count = EXCLUDED.paid_count,
+                pending_count = EXCLUDED.pending_count,
+                late_count = EXCLUDED.late_count,
+                next_due_date = EXCLUDED.next_due_date,
+                updated_at = CURRENT_TIMESTAMP""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean repair;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final Counter loansChecked;
+    private final Counter mismatches;
+
+    public ScheduleSummaryReconciliationJob(JdbcTemplate jdbcTemplate,
+                                            PlatformTransactionManager transactionManager,
+                                            MeterRegistry meterRegistry,
+                                            @Value("${app.jobs.summary-reconciliation.chunk-size:1000}") int chunkSize,
+                                            @Value("${app.jobs.summary-reconciliation.repair:true}") boolean repair) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = chunkSize;
+        this.repair = repair;
+
+        this.loansChecked = Counter.builder("schedule.summary.reconcile.loans.checked").register(meterRegistry);
+        this.mismatches = Counter.builder("schedule.summary.reconcile.mismatches")
+                .description("Loans whose summary row disagreed with their installments")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${app.jobs.summary-reconciliation.cron:0 45 1 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (RuntimeException e) {
+            log.error("Schedule summary reconciliation failed", e);
+        }
+    }
+
+    /** Checks every loan once. Returns empty when a run is already in progress. */
+    public Optional<RunResult> run() {
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Schedule summary reconciliation already running, skipping");
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(runInternal());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private RunResult runInternal() {
+        long startNanos = System.nanoTime();
+        long checked = 0;
+        long mismatched = 0;
+        long repaired = 0;
+        long afterId = 0;
+
+        while (true) {
+            List<Long> chunk = jdbcTemplate.queryForList(
+                    "SELECT id FROM loan WHERE id > ? ORDER BY id LIMIT ?", Long.class, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            afterId = chunk.get(chunk.size() - 1);
+            checked += chunk.size();
+            loansChecked.increment(chunk.size());
+
+            List<Long> bad = jdbcTemplate.queryForList(MISMATCHES_SQL, Long.class, chunk.get(0), afterId);
+            if (!bad.isEmpty()) {
+                mismatched += bad.size();
+                mismatches.increment(bad.size());
+                log.warn("Schedule summary mismatch for loans {}", bad);
+                if (repair) {
+                    repaired += repairSummaries(bad);
+                }
+            }
+        }
+
+        long durationMs = (System.nanoTime() - startNanos) / 1_000_000;
+        log.info("Schedule summary reconciliation finished: loans={}, mismatches={}, repaired={}, durationMs={}",
+                checked, mismatched, repaired, durationMs);
+        return new RunResult(checked, mismatched, repaired, durationMs);
+    }
+
+    private int repairSummaries(List<Long> loanIds) {
+        Long[] ids = loanIds.toArray(Long[]::new);
+        Integer rows = transactionTemplate.execute(status -> {
+            // Same lock payments take, in id order, so the installments cannot change underneath
+            jdbcTemplate.queryForList("SELECT id FROM loan WHERE id = ANY(?) ORDER BY id FOR UPDATE", Long.class,
+                    (Object) ids);
+            return jdbcTemplate.update(REPAIR_SQL, (Object) ids);
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    public record RunResult(long loansChecked, long mismatches, long repaired, long durationMs) {}
+}
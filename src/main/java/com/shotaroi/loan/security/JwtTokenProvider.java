@@ -2,6 +2,7 @@ package com.shotaroi.loan.security;
 
 import com.shotaroi.loan.common.Role;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.slf4j.Logger;
@@ -11,18 +12,27 @@ import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtTokenProvider {
 
     private static final Logger log = LoggerFactory.getLogger(JwtTokenProvider.class);
 
-    @Value("${app.jwt.secret:default-secret-key-at-least-256-bits-for-hs256-algorithm}")
-    private String secret;
+    private final long expirationMs;
+    // Both are immutable and thread-safe, so they are built once instead of per call
+    private final SecretKey signingKey;
+    private final JwtParser parser;
 
-    @Value("${app.jwt.expiration-ms:86400000}")
-    private long expirationMs;
+    public JwtTokenProvider(
+            @Value("${app.jwt.secret:default-secret-key-at-least-256-bits-for-hs256-algorithm}") String secret,
+            @Value("${app.jwt.expiration-ms:86400000}") long expirationMs) {
+        this.expirationMs = expirationMs;
+        this.signingKey = signingKey(secret);
+        this.parser = Jwts.parser().verifyWith(signingKey).build();
+    }
 
     public String createToken(Long customerId, String email, Role role) {
         Date now = new Date();
@@ -34,13 +44,30 @@ public class JwtTokenProvider {
                 .claim("role", role.name())
                 .issuedAt(now)
                 .expiration(expiry)
-                .signWith(getSigningKey())
+                .signWith(signingKey)
                 .compact();
 
         log.debug("Created JWT for customer {} (email: {})", customerId, email);
         return token;
     }
 
+    /**
+     * Verifies the signature and expiry and reads the principal in one parse.
+     * Empty when the token is invalid, expired or missing a claim.
+     */
+    public Optional<VerifiedToken> verify(String token) {
+        try {
+            Claims claims = getClaims(token);
+            SecurityUser user = new SecurityUser(claims.get("customerId", Long.class), claims.getSubject(), "",
+                    Role.valueOf(claims.get("role", String.class)));
+            Date expiration = claims.getExpiration();
+            return Optional.of(new VerifiedToken(user, expiration == null ? Instant.MAX : expiration.toInstant()));
+        } catch (Exception e) {
+            log.debug("Invalid JWT: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
     public String getEmailFromToken(String token) {
         return getClaims(token).getSubject();
     }
@@ -65,14 +92,10 @@ public class JwtTokenProvider {
     }
 
     private Claims getClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSigningKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return parser.parseSignedClaims(token).getPayload();
     }
 
-    private SecretKey getSigningKey() {
+    private static SecretKey signingKey(String secret) {
         byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
         if (keyBytes.length < 32) {
             keyBytes = new byte[32];
@@ -81,4 +104,6 @@ public class JwtTokenProvider {
         }
         return Keys.hmacShaKeyFor(keyBytes);
     }
+
+    public record VerifiedToken(SecurityUser user, Instant expiresAt) {}
 }
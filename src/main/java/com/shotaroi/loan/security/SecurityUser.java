@@ -15,12 +15,14 @@ public class SecurityUser implements UserDetails {
     private final String email;
     private final String passwordHash;
     private final Role role;
+    private final List<GrantedAuthority> authorities;
 
     public SecurityUser(Long id, String email, String passwordHash, Role role) {
         this.id = id;
         this.email = email;
         this.passwordHash = passwordHash;
         this.role = role;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
     }
 
     public Long getId() {
@@ -33,7 +35,7 @@ public class SecurityUser implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of(new SimpleGrantedAuthority("ROLE_" + role.name()));
+        return authorities;
     }
 
     @Override
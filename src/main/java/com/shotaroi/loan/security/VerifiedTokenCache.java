@@ -0,0 +1,76 @@
+package com.shotaroi.loan.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Principals of recently verified tokens, keyed by the full token string, so a client's repeated
+ * requests skip the HMAC check and claim parsing. Each entry expires together with its token; invalid
+ * tokens are never cached. Bounded by {@code maximumSize} (0 disables caching).
+ */
+@Component
+public class VerifiedTokenCache {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final Cache<String, JwtTokenProvider.VerifiedToken> cache;
+
+    public VerifiedTokenCache(JwtTokenProvider jwtTokenProvider,
+                              MeterRegistry meterRegistry,
+                              @Value("${app.jwt.cache-size:10000}") long maximumSize) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new UntilTokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.principals");
+    }
+
+    public Optional<SecurityUser> resolve(String token) {
+        JwtTokenProvider.VerifiedToken cached = cache.getIfPresent(token);
+        if (cached != null) {
+            return Optional.of(cached.user());
+        }
+        Optional<JwtTokenProvider.VerifiedToken> verified = jwtTokenProvider.verify(token);
+        verified.ifPresent(v -> cache.put(token, v));
+        return verified.map(JwtTokenProvider.VerifiedToken::user);
+    }
+
+    private static final class UntilTokenExpiry implements Expiry<String, JwtTokenProvider.VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String token, JwtTokenProvider.VerifiedToken verified, long currentTime) {
+            Duration remaining = Duration.between(Instant.now(), verified.expiresAt());
+            return remaining.isNegative() ? 0 : saturatedNanos(remaining);
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, JwtTokenProvider.VerifiedToken verified,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(token, verified, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, JwtTokenProvider.VerifiedToken verified,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        private static long saturatedNanos(Duration duration) {
+            try {
+                return duration.toNanos();
+            } catch (ArithmeticException e) {
+                return Long.MAX_VALUE;
+            }
+        }
+    }
+}
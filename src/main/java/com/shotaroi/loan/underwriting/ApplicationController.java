@@ -52,8 +52,10 @@ public class ApplicationController {
                 user.getId(), request.principal(), request.currency(),
                 request.termMonths(), request.annualInterestRate());
 
-        auditService.logSync(user.getId(), "APPLICATION_SUBMITTED",
+        auditService.log(user.getId(), "APPLICATION_SUBMITTED",
                 "applicationId=%d, principal=%s %s".formatted(app.getId(), app.getPrincipal(), app.getCurrency()));
+        app.getDecidedByRule().ifPresent(rule -> auditService.log(user.getId(), "UNDERWRITING_AUTO_DECISION",
+                "applicationId=%d, decision=%s, rule=%s".formatted(app.getId(), app.getStatus(), rule)));
 
         log.info("Application created: id={}, customerId={}", app.getId(), user.getId());
 
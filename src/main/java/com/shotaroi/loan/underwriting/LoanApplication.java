@@ -44,6 +44,18 @@ public class LoanApplication {
     @Column(name = "decision_reason", length = 1000)
     private String decisionReason;
 
+    @Column(name = "claimed_by")
+    private Long claimedBy;
+
+    @Column(name = "lease_expires_at")
+    private Instant leaseExpiresAt;
+
+    @Column(name = "decided_by_rule", length = 100)
+    private String decidedByRule;
+
+    @Column(name = "decision_trace")
+    private String decisionTrace;
+
     protected LoanApplication() {}
 
     public LoanApplication(Long customerId, BigDecimal principal, String currency,
@@ -96,6 +108,39 @@ public class LoanApplication {
         return Optional.ofNullable(decisionReason);
     }
 
+    public Optional<Long> getClaimedBy() {
+        return Optional.ofNullable(claimedBy);
+    }
+
+    public Optional<Instant> getLeaseExpiresAt() {
+        return Optional.ofNullable(leaseExpiresAt);
+    }
+
+    /** Name of the auto-decision rule that decided this application; empty for manual decisions. */
+    public Optional<String> getDecidedByRule() {
+        return Optional.ofNullable(decidedByRule);
+    }
+
+    public Optional<String> getDecisionTrace() {
+        return Optional.ofNullable(decisionTrace);
+    }
+
+    /** Records the rule engine's trace; {@code rule} is null when no rule fired. */
+    public void recordAutoEvaluation(String rule, String traceJson) {
+        this.decidedByRule = rule;
+        this.decisionTrace = traceJson;
+    }
+
+    /** True while another underwriter holds an unexpired lease. */
+    public boolean isLeasedToOther(Long underwriterId, Instant now) {
+        return claimedBy != null && !claimedBy.equals(underwriterId)
+                && leaseExpiresAt != null && leaseExpiresAt.isAfter(now);
+    }
+
+    public void releaseLease() {
+        this.leaseExpiresAt = null;
+    }
+
     public void approve(String reason) {
         this.status = ApplicationStatus.APPROVED;
         this.decidedAt = Instant.now();
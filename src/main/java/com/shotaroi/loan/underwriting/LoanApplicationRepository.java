@@ -3,7 +3,10 @@ package com.shotaroi.loan.underwriting;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 
+import java.time.Instant;
 import java.util.List;
 
 public interface LoanApplicationRepository extends JpaRepository<LoanApplication, Long> {
@@ -13,4 +16,39 @@ public interface LoanApplicationRepository extends JpaRepository<LoanApplication
     Page<LoanApplication> findByStatusOrderBySubmittedAtAsc(
             LoanApplication.ApplicationStatus status,
             Pageable pageable);
+
+    // The queue queries spell out status = 'SUBMITTED' so even a generic prepared plan can use the
+    // partial index idx_loan_application_queue
+
+    /**
+     * Locks up to {@code limit} of the oldest unleased (or lease-expired) SUBMITTED applications.
+     * Rows locked by a concurrent claim are skipped, not waited for, so claimers never queue up
+     * behind each other.
+     */
+    @Query(value = """
+            SELECT id FROM loan_application
+            WHERE status = 'SUBMITTED' AND (lease_expires_at IS NULL OR lease_expires_at <= :now)
+            ORDER BY submitted_at, id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED""", nativeQuery = true)
+    List<Long> lockClaimable(Instant now, int limit);
+
+    @Modifying
+    @Query("UPDATE LoanApplication a SET a.claimedBy = :underwriterId, a.leaseExpiresAt = :leaseExpiresAt "
+            + "WHERE a.id IN :ids")
+    int lease(List<Long> ids, Long underwriterId, Instant leaseExpiresAt);
+
+    /** The queue in (submitted_at, id) order, starting after the given position. */
+    @Query(value = """
+            SELECT * FROM loan_application
+            WHERE status = 'SUBMITTED'
+              AND submitted_at >= :submittedAt AND (submitted_at > :submittedAt OR id > :id)
+            ORDER BY submitted_at, id
+            LIMIT :limit""", nativeQuery = true)
+    List<LoanApplication> findQueueAfter(Instant submittedAt, long id, int limit);
+
+    @Query("SELECT a FROM LoanApplication a WHERE a.claimedBy = :underwriterId AND a.leaseExpiresAt > :now "
+            + "AND a.status = com.shotaroi.loan.underwriting.LoanApplication.ApplicationStatus.SUBMITTED "
+            + "ORDER BY a.submittedAt, a.id")
+    List<LoanApplication> findActiveClaims(Long underwriterId, Instant now);
 }
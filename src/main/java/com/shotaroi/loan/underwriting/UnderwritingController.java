@@ -1,6 +1,7 @@
 package com.shotaroi.loan.underwriting;
 
 import com.shotaroi.loan.audit.AuditService;
+import com.shotaroi.loan.common.exception.ResourceNotFoundException;
 import com.shotaroi.loan.security.SecurityUser;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -9,6 +10,7 @@ import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -46,16 +48,65 @@ public class UnderwritingController {
         return ResponseEntity.ok(list);
     }
 
+    @GetMapping("/queue")
+    @Operation(summary = "Browse the SUBMITTED queue oldest first; pass nextCursor back as cursor (UNDERWRITER)")
+    public ResponseEntity<QueuePageResponse> queue(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+
+        var page = underwritingService.queue(cursor, size);
+        return ResponseEntity.ok(new QueuePageResponse(
+                page.content().stream().map(this::toResponse).toList(),
+                page.nextCursor()));
+    }
+
+    @PostMapping("/claims")
+    @Operation(summary = "Lease the next applications from the queue to the caller (UNDERWRITER)")
+    public ResponseEntity<List<ApplicationResponse>> claim(
+            @RequestParam(defaultValue = "5") int limit,
+            @AuthenticationPrincipal SecurityUser user) {
+
+        List<LoanApplication> claimed = underwritingService.claim(user.getId(), limit);
+        if (!claimed.isEmpty()) {
+            auditService.log(user.getId(), "APPLICATIONS_CLAIMED", "applicationIds=%s".formatted(
+                    claimed.stream().map(LoanApplication::getId).toList()));
+        }
+        return ResponseEntity.ok(claimed.stream().map(this::toResponse).toList());
+    }
+
+    @GetMapping("/claims")
+    @Operation(summary = "Applications currently leased to the caller (UNDERWRITER)")
+    public ResponseEntity<List<ApplicationResponse>> activeClaims(@AuthenticationPrincipal SecurityUser user) {
+        return ResponseEntity.ok(underwritingService.findActiveClaims(user.getId()).stream()
+                .map(this::toResponse)
+                .toList());
+    }
+
+    @DeleteMapping("/claims/{id}")
+    @Operation(summary = "Return a leased application to the queue (UNDERWRITER)")
+    public ResponseEntity<Void> release(@PathVariable Long id, @AuthenticationPrincipal SecurityUser user) {
+        underwritingService.release(id, user.getId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping(value = "/{id}/decision-trace", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Rule-engine evaluation trace recorded at submission (UNDERWRITER)")
+    public ResponseEntity<String> decisionTrace(@PathVariable Long id) {
+        return underwritingService.getById(id).getDecisionTrace()
+                .map(ResponseEntity::ok)
+                .orElseThrow(() -> new ResourceNotFoundException("Decision trace for application", id));
+    }
+
     @PostMapping("/{id}/decision")
-    @Operation(summary = "Approve or reject application (UNDERWRITER)")
+    @Operation(summary = "Approve or reject application; refused while another underwriter holds its lease (UNDERWRITER)")
     public ResponseEntity<ApplicationResponse> decide(
             @PathVariable Long id,
             @Valid @RequestBody DecisionRequest request,
             @AuthenticationPrincipal SecurityUser user) {
 
-        LoanApplication app = underwritingService.decide(id, request.decision(), request.reason());
+        LoanApplication app = underwritingService.decide(id, request.decision(), request.reason(), user.getId());
 
-        auditService.logSync(user.getId(), "UNDERWRITING_DECISION",
+        auditService.log(user.getId(), "UNDERWRITING_DECISION",
                 "applicationId=%d, decision=%s, reason=%s".formatted(id, request.decision(), request.reason()));
 
         log.info("Underwriting decision: applicationId={}, decision={}, by={}", id, request.decision(), user.getId());
@@ -74,7 +125,10 @@ public class UnderwritingController {
                 app.getStatus().name(),
                 app.getSubmittedAt().toString(),
                 app.getDecidedAt().map(Object::toString).orElse(null),
-                app.getDecisionReason().orElse(null));
+                app.getDecisionReason().orElse(null),
+                app.getClaimedBy().orElse(null),
+                app.getLeaseExpiresAt().map(Object::toString).orElse(null),
+                app.getDecidedByRule().orElse(null));
     }
 
     public record DecisionRequest(
@@ -92,6 +146,11 @@ public class UnderwritingController {
             String status,
             String submittedAt,
             String decidedAt,
-            String decisionReason
+            String decisionReason,
+            Long claimedBy,
+            String leaseExpiresAt,
+            String decidedByRule
     ) {}
+
+    public record QueuePageResponse(List<ApplicationResponse> content, String nextCursor) {}
 }
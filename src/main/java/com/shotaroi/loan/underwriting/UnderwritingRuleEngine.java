@@ -0,0 +1,157 @@
+package com.shotaroi.loan.underwriting;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Auto-decides applications at submission with the rules in {@code app.underwriting.rules.location}.
+ * The file is compiled into an immutable {@link UnderwritingRules} held in an atomic reference, so
+ * evaluations never lock and a reload swaps the whole rule set at once. When the location is a file on
+ * disk it is polled for changes; an edit that does not compile is logged and the previous rules stay live.
+ * The customer facts the rules need come from a single aggregate query over the customer's loans.
+ */
+@Component
+public class UnderwritingRuleEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(UnderwritingRuleEngine.class);
+
+    /** Exposure in the application's currency, defaulted loans and the oldest overdue installment's age. */
+    private static final String FACTS_SQL = """
+            SELECT COALESCE(sum(l.outstanding_principal)
+                            FILTER (WHERE l.status = 'ACTIVE' AND l.currency = ?), 0) AS exposure,
+                   count(*) FILTER (WHERE l.status = 'DEFAULTED') AS defaulted_loans,
+                   COALESCE(max(?::date - o.oldest_due), 0) AS max_days_past_due
+            FROM loan l
+            LEFT JOIN LATERAL (
+                SELECT min(r.due_date) AS oldest_due
+                FROM repayment_schedule r
+                WHERE r.loan_id = l.id AND r.status <> 'PAID' AND r.due_date < ?) o ON true
+            WHERE l.customer_id = ?""";
+
+    private final Resource location;
+    private final boolean enabled;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<UnderwritingRules> rules = new AtomicReference<>();
+    private volatile long loadedModified;
+
+    private final MeterRegistry meterRegistry;
+    private final Counter reloads;
+    private final Counter reloadFailures;
+
+    public UnderwritingRuleEngine(JdbcTemplate jdbcTemplate,
+                                  ObjectMapper objectMapper,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${app.underwriting.rules.location:classpath:underwriting-rules.json}") Resource location,
+                                  @Value("${app.underwriting.auto-decision.enabled:true}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.location = location;
+        this.enabled = enabled;
+        this.reloads = Counter.builder("underwriting.rules.reloads").tag("result", "success")
+                .register(meterRegistry);
+        this.reloadFailures = Counter.builder("underwriting.rules.reloads").tag("result", "failure")
+                .description("Rule file changes that did not compile; the previous rules stayed live")
+                .register(meterRegistry);
+        // A broken rule file at startup is a deployment error, not something to run without
+        this.loadedModified = lastModified();
+        this.rules.set(load());
+        log.info("Loaded underwriting rules version {} ({} rules) from {}",
+                rules.get().version(), rules.get().size(), location);
+    }
+
+    public UnderwritingRules rules() {
+        return rules.get();
+    }
+
+    /** Picks up edits to a rule file on disk; classpath resources inside a jar are never reloaded. */
+    @Scheduled(fixedDelayString = "${app.underwriting.rules.reload-interval-ms:10000}")
+    public void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified <= 0 || modified == loadedModified) {
+            return;
+        }
+        loadedModified = modified;
+        try {
+            UnderwritingRules reloaded = load();
+            UnderwritingRules previous = rules.getAndSet(reloaded);
+            reloads.increment();
+            log.info("Reloaded underwriting rules: version {} -> {} ({} rules)",
+                    previous.version(), reloaded.version(), reloaded.size());
+        } catch (RuntimeException e) {
+            reloadFailures.increment();
+            log.error("Underwriting rules in {} did not compile; keeping version {}",
+                    location, rules.get().version(), e);
+        }
+    }
+
+    /**
+     * Evaluates the current rules against the application and its customer's book as of today.
+     * Empty when auto-decision is switched off.
+     */
+    public Optional<UnderwritingRules.Evaluation> evaluate(LoanApplication app) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        UnderwritingRules.Evaluation evaluation = rules.get().evaluate(facts(app, LocalDate.now()));
+        meterRegistry.counter("underwriting.auto.decisions", "outcome",
+                evaluation.decided() ? evaluation.decision().name() : "MANUAL").increment();
+        return Optional.of(evaluation);
+    }
+
+    UnderwritingRules.ApplicantFacts facts(LoanApplication app, LocalDate asOf) {
+        return jdbcTemplate.queryForObject(FACTS_SQL, (rs, i) -> new UnderwritingRules.ApplicantFacts(
+                        app.getPrincipal(),
+                        app.getTermMonths(),
+                        app.getAnnualInterestRate(),
+                        app.getCurrency(),
+                        rs.getBigDecimal("exposure"),
+                        rs.getInt("max_days_past_due"),
+                        rs.getInt("defaulted_loans")),
+                app.getCurrency(), asOf, asOf, app.getCustomerId());
+    }
+
+    public String traceJson(UnderwritingRules.Evaluation evaluation) {
+        try {
+            return objectMapper.writeValueAsString(evaluation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize decision trace", e);
+        }
+    }
+
+    private UnderwritingRules load() {
+        try (InputStream in = location.getInputStream()) {
+            return UnderwritingRules.compile(objectMapper.readValue(in, UnderwritingRules.Definition.class));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read underwriting rules from " + location, e);
+        }
+    }
+
+    private long lastModified() {
+        if (!location.isFile()) {
+            return 0;
+        }
+        try {
+            return location.lastModified();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+}
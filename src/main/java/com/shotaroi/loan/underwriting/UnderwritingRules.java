@@ -0,0 +1,226 @@
+package com.shotaroi.loan.underwriting;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * A compiled, immutable underwriting rule set. Rules are tried in order and the first one whose conditions
+ * all hold decides the application; when none matches, the application stays in the manual queue.
+ * Compiling resolves every fact, operator and threshold once, so evaluating is a walk over final fields
+ * with no parsing or locking, and one instance can be shared by any number of threads.
+ */
+public final class UnderwritingRules {
+
+    private final String version;
+    private final List<Rule> rules;
+
+    private UnderwritingRules(String version, List<Rule> rules) {
+        this.version = version;
+        this.rules = List.copyOf(rules);
+    }
+
+    /** Validates and compiles a definition; throws {@link IllegalArgumentException} naming the offending rule. */
+    public static UnderwritingRules compile(Definition definition) {
+        if (definition == null || definition.rules() == null) {
+            throw new IllegalArgumentException("Rule set has no rules list");
+        }
+        Set<String> names = new HashSet<>();
+        List<Rule> compiled = new ArrayList<>();
+        for (RuleDefinition rule : definition.rules()) {
+            if (rule.name() == null || rule.name().isBlank() || !names.add(rule.name())) {
+                throw new IllegalArgumentException("Rule names must be present and unique: " + rule.name());
+            }
+            LoanApplication.ApplicationStatus decision;
+            try {
+                decision = LoanApplication.ApplicationStatus.valueOf(String.valueOf(rule.decision()));
+            } catch (IllegalArgumentException e) {
+                decision = null;
+            }
+            if (decision != LoanApplication.ApplicationStatus.APPROVED
+                    && decision != LoanApplication.ApplicationStatus.REJECTED) {
+                throw new IllegalArgumentException("Rule " + rule.name() + ": decision must be APPROVED or REJECTED");
+            }
+            List<Condition> conditions = new ArrayList<>();
+            for (ConditionDefinition condition : rule.when() == null ? List.<ConditionDefinition>of() : rule.when()) {
+                conditions.add(Condition.compile(rule.name(), condition));
+            }
+            String reason = rule.reason() == null || rule.reason().isBlank() ? rule.name() : rule.reason();
+            compiled.add(new Rule(rule.name(), decision, reason, List.copyOf(conditions)));
+        }
+        return new UnderwritingRules(definition.version() == null ? "unversioned" : definition.version(), compiled);
+    }
+
+    public String version() {
+        return version;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    public Evaluation evaluate(ApplicantFacts facts) {
+        List<RuleTrace> trace = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            List<ConditionTrace> checked = new ArrayList<>(rule.conditions().size());
+            boolean matched = true;
+            for (Condition condition : rule.conditions()) {
+                ConditionTrace result = condition.test(facts);
+                checked.add(result);
+                if (!result.passed()) {
+                    matched = false;
+                    break;
+                }
+            }
+            trace.add(new RuleTrace(rule.name(), matched, checked));
+            if (matched) {
+                return new Evaluation(version, rule.decision(), rule.name(), rule.reason(), trace);
+            }
+        }
+        return new Evaluation(version, null, null, null, trace);
+    }
+
+    /** What a rule can test. Numeric facts take comparison operators, text facts equality and membership. */
+    public enum Fact {
+        PRINCIPAL("principal", ApplicantFacts::principal),
+        TERM_MONTHS("termMonths", f -> BigDecimal.valueOf(f.termMonths())),
+        ANNUAL_INTEREST_RATE("annualInterestRate", ApplicantFacts::annualInterestRate),
+        CURRENCY("currency", null),
+        /** Outstanding principal of the customer's ACTIVE loans in the application's currency. */
+        EXPOSURE("exposure", ApplicantFacts::exposure),
+        /** Days since the customer's oldest unpaid installment fell due; 0 when nothing is overdue. */
+        MAX_DAYS_PAST_DUE("maxDaysPastDue", f -> BigDecimal.valueOf(f.maxDaysPastDue())),
+        DEFAULTED_LOANS("defaultedLoans", f -> BigDecimal.valueOf(f.defaultedLoans()));
+
+        private final String key;
+        private final Function<ApplicantFacts, BigDecimal> number;
+
+        Fact(String key, Function<ApplicantFacts, BigDecimal> number) {
+            this.key = key;
+            this.number = number;
+        }
+
+        boolean numeric() {
+            return number != null;
+        }
+
+        static Fact of(String key) {
+            for (Fact fact : values()) {
+                if (fact.key.equals(key)) {
+                    return fact;
+                }
+            }
+            return null;
+        }
+    }
+
+    enum Operator {
+        EQ("eq"), NE("ne"), LT("lt"), LTE("lte"), GT("gt"), GTE("gte"), IN("in"), NOT_IN("notIn");
+
+        private final String key;
+
+        Operator(String key) {
+            this.key = key;
+        }
+
+        static Operator of(String key) {
+            for (Operator op : values()) {
+                if (op.key.equals(key)) {
+                    return op;
+                }
+            }
+            return null;
+        }
+    }
+
+    private record Rule(String name, LoanApplication.ApplicationStatus decision, String reason,
+                        List<Condition> conditions) {}
+
+    /** One compiled test: a numeric threshold, or a set of accepted texts. */
+    private record Condition(Fact fact, Operator op, BigDecimal threshold, Set<String> texts, String expected) {
+
+        static Condition compile(String rule, ConditionDefinition definition) {
+            Fact fact = Fact.of(definition.fact());
+            Operator op = Operator.of(definition.op());
+            if (fact == null) {
+                throw new IllegalArgumentException("Rule " + rule + ": unknown fact " + definition.fact());
+            }
+            if (op == null) {
+                throw new IllegalArgumentException("Rule " + rule + ": unknown operator " + definition.op());
+            }
+            Object value = definition.value();
+            if (fact.numeric()) {
+                if (op == Operator.IN || op == Operator.NOT_IN || !(value instanceof Number)) {
+                    throw new IllegalArgumentException(
+                            "Rule " + rule + ": " + fact.key + " needs a numeric comparison");
+                }
+                BigDecimal threshold = new BigDecimal(value.toString());
+                return new Condition(fact, op, threshold, Set.of(), threshold.toPlainString());
+            }
+            Set<String> texts = switch (op) {
+                case EQ, NE -> value instanceof String s ? Set.of(s) : null;
+                case IN, NOT_IN -> value instanceof List<?> list && list.stream().allMatch(String.class::isInstance)
+                        ? Set.copyOf(list.stream().map(String.class::cast).toList()) : null;
+                default -> null;
+            };
+            if (texts == null) {
+                throw new IllegalArgumentException(
+                        "Rule " + rule + ": " + fact.key + " takes eq/ne with a string or in/notIn with a list");
+            }
+            return new Condition(fact, op, null, texts, String.valueOf(value));
+        }
+
+        ConditionTrace test(ApplicantFacts facts) {
+            boolean passed;
+            String actual;
+            if (fact.numeric()) {
+                BigDecimal value = fact.number.apply(facts);
+                actual = value.toPlainString();
+                int cmp = value.compareTo(threshold);
+                passed = switch (op) {
+                    case EQ -> cmp == 0;
+                    case NE -> cmp != 0;
+                    case LT -> cmp < 0;
+                    case LTE -> cmp <= 0;
+                    case GT -> cmp > 0;
+                    case GTE -> cmp >= 0;
+                    default -> throw new IllegalStateException(op.name());
+                };
+            } else {
+                actual = facts.currency();
+                boolean member = texts.contains(actual);
+                passed = op == Operator.EQ || op == Operator.IN ? member : !member;
+            }
+            return new ConditionTrace(fact.key, op.key, expected, actual, passed);
+        }
+    }
+
+    /** What the rules see about one application and its customer. */
+    public record ApplicantFacts(BigDecimal principal, int termMonths, BigDecimal annualInterestRate,
+                                 String currency, BigDecimal exposure, int maxDaysPastDue, int defaultedLoans) {}
+
+    /** Outcome plus the explanation trace; {@code decision} is null when the application goes to manual review. */
+    public record Evaluation(String rulesVersion, LoanApplication.ApplicationStatus decision, String rule,
+                             String reason, List<RuleTrace> trace) {
+
+        public boolean decided() {
+            return decision != null;
+        }
+    }
+
+    /** A rule that was tried, with its conditions up to the first one that failed. */
+    public record RuleTrace(String rule, boolean matched, List<ConditionTrace> conditions) {}
+
+    public record ConditionTrace(String fact, String op, String expected, String actual, boolean passed) {}
+
+    // Rule file format, bound by Jackson
+
+    public record Definition(String version, List<RuleDefinition> rules) {}
+
+    public record RuleDefinition(String name, String decision, String reason, List<ConditionDefinition> when) {}
+
+    public record ConditionDefinition(String fact, String op, Object value) {}
+}
@@ -3,31 +3,71 @@ package com.shotaroi.loan.underwriting;
 import com.shotaroi.loan.common.exception.ForbiddenException;
 import com.shotaroi.loan.common.exception.ResourceNotFoundException;
 import com.shotaroi.loan.common.exception.ValidationException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Comparator;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @Service
 public class UnderwritingService {
 
     private static final Logger log = LoggerFactory.getLogger(UnderwritingService.class);
 
+    public static final int MAX_QUEUE_PAGE_SIZE = 100;
+
     private final LoanApplicationRepository applicationRepository;
+    private final UnderwritingRuleEngine ruleEngine;
+    private final Duration leaseDuration;
+    private final int maxClaimSize;
+    private final MeterRegistry meterRegistry;
 
-    public UnderwritingService(LoanApplicationRepository applicationRepository) {
+    public UnderwritingService(LoanApplicationRepository applicationRepository,
+                               UnderwritingRuleEngine ruleEngine,
+                               MeterRegistry meterRegistry,
+                               @Value("${app.underwriting.lease-duration:15m}") Duration leaseDuration,
+                               @Value("${app.underwriting.max-claim-size:20}") int maxClaimSize) {
         this.applicationRepository = applicationRepository;
+        this.ruleEngine = ruleEngine;
+        this.leaseDuration = leaseDuration;
+        this.maxClaimSize = maxClaimSize;
+        this.meterRegistry = meterRegistry;
     }
 
+    /**
+     * Submits an application and runs the auto-decision rules on it. The first matching rule approves or
+     * rejects it on the spot; when none matches it stays SUBMITTED for the manual queue. Either way the
+     * evaluation trace is stored with the application.
+     */
     @Transactional
     public LoanApplication createApplication(Long customerId, BigDecimal principal, String currency,
                                             int termMonths, BigDecimal annualInterestRate) {
-        LoanApplication app = new LoanApplication(customerId, principal, currency, termMonths, annualInterestRate);
+        LoanApplication app = applicationRepository.save(
+                new LoanApplication(customerId, principal, currency, termMonths, annualInterestRate));
+        var evaluation = ruleEngine.evaluate(app);
+        if (evaluation.isEmpty()) {
+            return app;
+        }
+        var result = evaluation.get();
+        app.recordAutoEvaluation(result.rule(), ruleEngine.traceJson(result));
+        if (result.decided()) {
+            log.debug("Application {} auto-decided {} by rule {}", app.getId(), result.decision(), result.rule());
+            return decide(app, result.decision(), "Rule %s: %s".formatted(result.rule(), result.reason()), "auto");
+        }
         return applicationRepository.save(app);
     }
 
@@ -53,9 +93,98 @@ public class UnderwritingService {
         return applicationRepository.findByStatusOrderBySubmittedAtAsc(status, pageable);
     }
 
+    /**
+     * Browses the SUBMITTED queue oldest first with keyset pagination: each page starts right after the
+     * cursor's (submittedAt, id), so deep pages cost the same as the first.
+     */
+    public QueuePage queue(String cursor, int size) {
+        if (size < 1 || size > MAX_QUEUE_PAGE_SIZE) {
+            throw new ValidationException("Page size must be between 1 and " + MAX_QUEUE_PAGE_SIZE);
+        }
+        QueueCursor after = cursor == null ? QueueCursor.START : QueueCursor.decode(cursor);
+        List<LoanApplication> rows = applicationRepository.findQueueAfter(after.submittedAt(), after.id(), size + 1);
+        boolean hasNext = rows.size() > size;
+        List<LoanApplication> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? QueueCursor.of(content.get(content.size() - 1)).encode() : null;
+        return new QueuePage(content, nextCursor);
+    }
+
     @Transactional
-    public LoanApplication decide(Long id, LoanApplication.ApplicationStatus decision, String reason) {
+    public List<LoanApplication> claim(Long underwriterId, int limit) {
+        return claim(underwriterId, limit, Instant.now());
+    }
+
+    /**
+     * Leases up to {@code limit} of the oldest unclaimed SUBMITTED applications to the underwriter until
+     * {@code now + leaseDuration}. Concurrent claims skip each other's rows, so every application goes
+     * to exactly one underwriter; a lease that runs out puts the application back in the queue.
+     */
+    @Transactional
+    public List<LoanApplication> claim(Long underwriterId, int limit, Instant now) {
+        if (limit < 1 || limit > maxClaimSize) {
+            throw new ValidationException("Claim size must be between 1 and " + maxClaimSize);
+        }
+        List<Long> ids = applicationRepository.lockClaimable(now, limit);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        applicationRepository.lease(ids, underwriterId, now.plus(leaseDuration));
+        log.debug("Leased applications {} to underwriter {}", ids, underwriterId);
+        return applicationRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(LoanApplication::getSubmittedAt).thenComparing(LoanApplication::getId))
+                .toList();
+    }
+
+    public List<LoanApplication> findActiveClaims(Long underwriterId) {
+        return applicationRepository.findActiveClaims(underwriterId, Instant.now());
+    }
+
+    /** Hands a claimed application back to the queue before its lease runs out. */
+    @Transactional
+    public void release(Long id, Long underwriterId) {
+        LoanApplication app = getById(id);
+        if (app.isLeasedToOther(underwriterId, Instant.now())) {
+            throw new ForbiddenException("Application is claimed by another underwriter");
+        }
+        app.releaseLease();
+    }
+
+    /** Decision by an underwriter; refused while another underwriter holds the application's lease. */
+    @Transactional
+    public LoanApplication decide(Long id, LoanApplication.ApplicationStatus decision, String reason,
+                                  Long underwriterId) {
         LoanApplication app = getById(id);
+        if (app.isLeasedToOther(underwriterId, Instant.now())) {
+            throw new ForbiddenException("Application is claimed by another underwriter");
+        }
+        return decide(app, decision, reason, "manual");
+    }
+
+    @Transactional
+    public LoanApplication decide(Long id, LoanApplication.ApplicationStatus decision, String reason) {
+        return decide(getById(id), decision, reason, "manual");
+    }
+
+    private LoanApplication decide(LoanApplication app, LoanApplication.ApplicationStatus decision, String reason,
+                                   String source) {
+        long start = System.nanoTime();
+        String outcome = "error";
+        try {
+            LoanApplication decided = applyDecision(app, decision, reason);
+            outcome = decided.getStatus().name();
+            return decided;
+        } finally {
+            Timer.builder("underwriting.decide")
+                    .tag("source", source)
+                    .tag("decision", outcome)
+                    .description("Recording an underwriting decision, excluding commit")
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private LoanApplication applyDecision(LoanApplication app, LoanApplication.ApplicationStatus decision,
+                                          String reason) {
         if (app.getStatus() != LoanApplication.ApplicationStatus.SUBMITTED) {
             throw new ValidationException("Application already decided");
         }
@@ -68,4 +197,31 @@ public class UnderwritingService {
         }
         return applicationRepository.save(app);
     }
+
+    public record QueuePage(List<LoanApplication> content, String nextCursor) {}
+
+    record QueueCursor(Instant submittedAt, long id) {
+
+        static final QueueCursor START = new QueueCursor(Instant.EPOCH, 0);
+
+        static QueueCursor of(LoanApplication app) {
+            return new QueueCursor(app.getSubmittedAt(), app.getId());
+        }
+
+        String encode() {
+            String raw = submittedAt + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static QueueCursor decode(String value) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new QueueCursor(Instant.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+                throw new ValidationException("Invalid cursor");
+            }
+        }
+    }
 }
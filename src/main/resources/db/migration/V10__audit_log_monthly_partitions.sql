@@ -0,0 +1,45 @@
+-- Monthly range partitions for audit_log. Rows outside every monthly range land in audit_log_default;
+-- AuditPartitionMaintenance keeps months ahead of time and archives expired ones.
+ALTER TABLE audit_log RENAME TO audit_log_legacy;
+ALTER TABLE audit_log_legacy RENAME CONSTRAINT audit_log_pkey TO audit_log_legacy_pkey;
+DROP INDEX idx_audit_log_created_at_id;
+DROP INDEX idx_audit_log_actor_created_at_id;
+DROP INDEX idx_audit_log_action_created_at_id;
+
+-- The partition key has to be part of the primary key; ids still come from the same sequence
+CREATE TABLE audit_log (
+    id BIGINT NOT NULL DEFAULT nextval('audit_log_id_seq'),
+    actor_customer_id BIGINT REFERENCES customer(id) ON DELETE SET NULL,
+    action VARCHAR(255) NOT NULL,
+    details TEXT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+CREATE TABLE audit_log_default PARTITION OF audit_log DEFAULT;
+
+-- One partition per month from the oldest existing row through three months ahead
+DO $$
+DECLARE
+    month_start DATE := date_trunc('month', LEAST(
+            (SELECT min(created_at) FROM audit_log_legacy), CURRENT_TIMESTAMP::timestamp))::date;
+    last_month DATE := (date_trunc('month', CURRENT_DATE) + INTERVAL '3 months')::date;
+BEGIN
+    WHILE month_start <= last_month LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF audit_log FOR VALUES FROM (%L) TO (%L)',
+                       'audit_log_' || to_char(month_start, '"y"YYYY"m"MM'),
+                       month_start, (month_start + INTERVAL '1 month')::date);
+        month_start := (month_start + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO audit_log (id, actor_customer_id, action, details, created_at)
+SELECT id, actor_customer_id, action, details, created_at FROM audit_log_legacy;
+
+ALTER SEQUENCE audit_log_id_seq OWNED BY audit_log.id;
+DROP TABLE audit_log_legacy;
+
+-- Created on the parent, so every partition (including future ones) gets its own copy
+CREATE INDEX idx_audit_log_created_at_id ON audit_log(created_at, id);
+CREATE INDEX idx_audit_log_actor_created_at_id ON audit_log(actor_customer_id, created_at, id);
+CREATE INDEX idx_audit_log_action_created_at_id ON audit_log(action, created_at, id);
@@ -0,0 +1,26 @@
+-- Aggregates behind GET /api/loans/{id}/schedule/summary, one row per loan.
+-- Kept current by payments and late marking in the same transaction; ScheduleSummaryReconciliationJob
+-- re-derives them from repayment_schedule and repairs any drift.
+CREATE TABLE loan_schedule_summary (
+    loan_id BIGINT PRIMARY KEY REFERENCES loan(id) ON DELETE CASCADE,
+    total_paid DECIMAL(19, 2) NOT NULL,
+    total_remaining DECIMAL(19, 2) NOT NULL,
+    paid_count INTEGER NOT NULL,
+    pending_count INTEGER NOT NULL,
+    late_count INTEGER NOT NULL,
+    next_due_date DATE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+INSERT INTO loan_schedule_summary
+    (loan_id, total_paid, total_remaining, paid_count, pending_count, late_count, next_due_date)
+SELECT l.id,
+       COALESCE(sum(r.amount_paid) FILTER (WHERE r.status = 'PAID'), 0),
+       COALESCE(sum(r.total_due - COALESCE(r.amount_paid, 0)) FILTER (WHERE r.status <> 'PAID'), 0),
+       count(r.id) FILTER (WHERE r.status = 'PAID'),
+       count(r.id) FILTER (WHERE r.status <> 'PAID'),
+       count(r.id) FILTER (WHERE r.status = 'LATE'),
+       (array_agg(r.due_date ORDER BY r.installment_number) FILTER (WHERE r.status <> 'PAID'))[1]
+FROM loan l
+LEFT JOIN repayment_schedule r ON r.loan_id = l.id
+GROUP BY l.id;
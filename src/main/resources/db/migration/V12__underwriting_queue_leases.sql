@@ -0,0 +1,9 @@
+-- Work claiming for the underwriting queue: an underwriter leases SUBMITTED applications until
+-- lease_expires_at; expired leases go back to the queue without any cleanup job.
+ALTER TABLE loan_application
+    ADD COLUMN claimed_by BIGINT REFERENCES customer(id) ON DELETE SET NULL,
+    ADD COLUMN lease_expires_at TIMESTAMP;
+
+-- Only the queue is indexed, so the index stays as small as the backlog rather than the history.
+-- id breaks ties between equal submitted_at values for keyset paging and claim order.
+CREATE INDEX idx_loan_application_queue ON loan_application(submitted_at, id) WHERE status = 'SUBMITTED';
@@ -0,0 +1,5 @@
+-- Rule-based auto-decisions: the rule that decided an application (NULL for manual decisions) and the
+-- evaluation trace, which is also kept when no rule fired and the application went to the manual queue.
+ALTER TABLE loan_application
+    ADD COLUMN decided_by_rule VARCHAR(100),
+    ADD COLUMN decision_trace TEXT;
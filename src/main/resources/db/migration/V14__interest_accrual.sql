@@ -0,0 +1,16 @@
+-- Daily interest accrual ledger, one row per loan and accrual date. InterestAccrualJob inserts the row and
+-- adds its amount to loan.accrued_interest in the same statement; the primary key turns a re-run for a date
+-- into a no-op. Dates on which a loan accrued nothing have no row.
+CREATE TABLE interest_accrual (
+    loan_id BIGINT NOT NULL REFERENCES loan(id) ON DELETE CASCADE,
+    accrual_date DATE NOT NULL,
+    principal_base DECIMAL(19, 2) NOT NULL,
+    annual_interest_rate DECIMAL(10, 8) NOT NULL,
+    day_count VARCHAR(20) NOT NULL,
+    year_fraction DECIMAL(12, 10) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (loan_id, accrual_date)
+);
+
+CREATE INDEX idx_interest_accrual_date ON interest_accrual(accrual_date);
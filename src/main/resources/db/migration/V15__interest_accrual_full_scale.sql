@@ -0,0 +1,8 @@
+-- Ledger amounts keep the exact day's interest instead of rounding it to cents. Rounding every day dropped
+-- arrears too small to earn a cent a day and lost up to half a cent per loan and day on the rest.
+-- loan.accrual_carry holds the sub-cent part not yet added to accrued_interest; InterestAccrualJob adds
+-- whole cents and carries the remainder to the next date, so accrued_interest never drifts from the ledger
+-- by more than a cent.
+ALTER TABLE interest_accrual ALTER COLUMN amount TYPE DECIMAL(24, 10);
+
+ALTER TABLE loan ADD COLUMN accrual_carry DECIMAL(12, 10) NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Repayment schedule ids are allocated by Hibernate in pools of 50 so installment inserts can be JDBC-batched
+ALTER SEQUENCE repayment_schedule_id_seq INCREMENT BY 50;
@@ -0,0 +1,2 @@
+-- Supports the set-based late sweep (status DUE -> LATE once due_date has passed)
+CREATE INDEX idx_repayment_schedule_due ON repayment_schedule(due_date) WHERE status = 'DUE';
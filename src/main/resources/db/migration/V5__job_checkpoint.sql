@@ -0,0 +1,8 @@
+-- Restart point for chunked batch jobs: last processed id of the run for run_date
+CREATE TABLE job_checkpoint (
+    job_name VARCHAR(100) PRIMARY KEY,
+    run_date DATE NOT NULL,
+    last_id BIGINT NOT NULL DEFAULT 0,
+    completed BOOLEAN NOT NULL DEFAULT FALSE,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
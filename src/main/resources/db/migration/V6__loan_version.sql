@@ -0,0 +1 @@
+ALTER TABLE loan ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1 @@
+CREATE INDEX idx_repayment_schedule_open ON repayment_schedule(loan_id, installment_number) WHERE status <> 'PAID';
@@ -0,0 +1,4 @@
+ALTER TABLE payment ADD COLUMN idempotency_key VARCHAR(255);
+ALTER TABLE payment ADD COLUMN outstanding_principal_after DECIMAL(19, 2);
+
+CREATE UNIQUE INDEX uq_payment_idempotency ON payment(loan_id, idempotency_key) WHERE idempotency_key IS NOT NULL;
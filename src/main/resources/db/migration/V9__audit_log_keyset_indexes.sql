@@ -0,0 +1,7 @@
+-- Keyset pagination walks (created_at, id) backwards, optionally within one actor or action
+DROP INDEX idx_audit_log_created_at;
+DROP INDEX idx_audit_log_actor;
+
+CREATE INDEX idx_audit_log_created_at_id ON audit_log(created_at, id);
+CREATE INDEX idx_audit_log_actor_created_at_id ON audit_log(actor_customer_id, created_at, id);
+CREATE INDEX idx_audit_log_action_created_at_id ON audit_log(action, created_at, id);
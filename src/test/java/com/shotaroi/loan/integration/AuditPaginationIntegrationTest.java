@@ -0,0 +1,118 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.sql.Types;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class AuditPaginationIntegrationTest {
+
+    private static final String ACTION = "AUDIT_KEYSET_TEST";
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void cursor_walks_filtered_log_newest_first_without_gaps_or_duplicates() throws Exception {
+        // 30 rows, five per timestamp, so the id tiebreak matters
+        Instant base = Instant.parse("2024-06-01T12:00:00Z");
+        for (int i = 0; i < 30; i++) {
+            Instant createdAt = base.plus(i / 5, ChronoUnit.MINUTES);
+            jdbcTemplate.update("INSERT INTO audit_log (action, details, created_at) VALUES (?, ?, ?)", ps -> {
+                ps.setString(1, ACTION);
+                ps.setString(2, "row");
+                ps.setObject(3, OffsetDateTime.ofInstant(createdAt, ZoneOffset.UTC), Types.TIMESTAMP_WITH_TIMEZONE);
+            });
+        }
+        String token = fixtures.adminToken(mockMvc);
+
+        List<JsonNode> seen = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/admin/audit")
+                    .header("Authorization", "Bearer " + token)
+                    .param("action", ACTION)
+                    .param("size", "7");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("content").forEach(seen::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(seen).hasSize(30);
+        assertThat(seen).extracting(n -> n.get("id").asLong()).doesNotHaveDuplicates();
+        for (int i = 1; i < seen.size(); i++) {
+            Instant previous = Instant.parse(seen.get(i - 1).get("createdAt").asText());
+            Instant current = Instant.parse(seen.get(i).get("createdAt").asText());
+            assertThat(current).isBeforeOrEqualTo(previous);
+            if (current.equals(previous)) {
+                assertThat(seen.get(i).get("id").asLong()).isLessThan(seen.get(i - 1).get("id").asLong());
+            }
+        }
+
+        JsonNode exact = objectMapper.readTree(mockMvc.perform(get("/api/admin/audit")
+                        .header("Authorization", "Bearer " + token)
+                        .param("action", ACTION)
+                        .param("from", base.plus(1, ChronoUnit.MINUTES).toString())
+                        .param("to", base.plus(3, ChronoUnit.MINUTES).toString())
+                        .param("total", "EXACT"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(exact.get("total").asLong()).isEqualTo(10);
+        assertThat(exact.get("totalEstimated").asBoolean()).isFalse();
+
+        JsonNode estimated = objectMapper.readTree(mockMvc.perform(get("/api/admin/audit")
+                        .header("Authorization", "Bearer " + token)
+                        .param("action", ACTION)
+                        .param("total", "ESTIMATED"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        assertThat(estimated.get("total").asLong()).isPositive();
+        assertThat(estimated.get("totalEstimated").asBoolean()).isTrue();
+
+        mockMvc.perform(get("/api/admin/audit")
+                        .header("Authorization", "Bearer " + token)
+                        .param("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,163 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.audit.AuditPartitionMaintenance;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@ActiveProfiles("test")
+class AuditPartitionIntegrationTest {
+
+    private static final String ACTION = "AUDIT_PARTITION_TEST";
+
+    @TempDir
+    static Path archiveDir;
+
+    @DynamicPropertySource
+    static void archiveDir(DynamicPropertyRegistry registry) {
+        registry.add("app.audit.partitions.archive-dir", () -> archiveDir.toString());
+    }
+
+    @Autowired
+    private AuditPartitionMaintenance maintenance;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void upcoming_months_are_partitioned_and_queries_by_time_prune_to_them() {
+        LocalDate today = LocalDate.now();
+        maintenance.createPartitions(today);
+
+        String current = "audit_log_y%04dm%02d".formatted(today.getYear(), today.getMonthValue());
+        LocalDate last = today.plusMonths(3);
+        String lastAhead = "audit_log_y%04dm%02d".formatted(last.getYear(), last.getMonthValue());
+        assertThat(partitions()).contains(current, lastAhead);
+        // Idempotent
+        assertThat(maintenance.createPartitions(today)).isEmpty();
+
+        Instant from = today.withDayOfMonth(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN (ANALYZE, COSTS OFF) SELECT * FROM audit_log WHERE created_at >= ? AND created_at < ?",
+                String.class, utc(from.plusSeconds(3600)), utc(from.plusSeconds(7200))));
+        assertThat(plan).contains(current).doesNotContain(lastAhead).doesNotContain("audit_log_default");
+    }
+
+    @Test
+    void expired_months_are_exported_then_detached() throws Exception {
+        // No partition covers 2020 yet, so these rows start out in the default partition
+        Instant january = Instant.parse("2020-01-15T10:00:00Z");
+        for (int i = 0; i < 5; i++) {
+            insert(january.plusSeconds(i));
+        }
+        insert(Instant.parse("2020-02-03T00:00:00Z"));
+
+        assertThat(maintenance.createPartitions(LocalDate.of(2020, 1, 1)))
+                .contains("audit_log_y2020m01", "audit_log_y2020m02");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM audit_log_y2020m01 WHERE action = ?", Long.class, ACTION)).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM audit_log_default WHERE action = ?", Long.class, ACTION)).isZero();
+
+        List<Path> archived = maintenance.archiveExpired(LocalDate.now());
+
+        Path january2020 = archiveDir.resolve("audit_log_y2020m01.ndjson.gz");
+        assertThat(archived).contains(january2020, archiveDir.resolve("audit_log_y2020m02.ndjson.gz"));
+        List<JsonNode> lines = readArchive(january2020);
+        assertThat(lines).hasSize(5);
+        assertThat(lines).allSatisfy(n -> assertThat(n.get("action").asText()).isEqualTo(ACTION));
+        assertThat(Instant.parse(lines.get(0).get("createdAt").asText())).isEqualTo(january);
+
+        assertThat(partitions()).doesNotContain("audit_log_y2020m01", "audit_log_y2020m02");
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('audit_log_y2020m01')", String.class)).isNull();
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM audit_log WHERE action = ?", Long.class, ACTION)).isZero();
+    }
+
+    @Test
+    void expired_rows_in_the_default_partition_are_archived_too() throws Exception {
+        // March 2019 never gets a partition of its own before it expires
+        Instant march = Instant.parse("2019-03-10T08:00:00Z");
+        insert(march);
+        insert(march.plusSeconds(60));
+
+        List<Path> archived = maintenance.archiveExpired(LocalDate.now());
+
+        Path first = archiveDir.resolve("audit_log_y2019m03.ndjson.gz");
+        assertThat(archived).contains(first);
+        assertThat(readArchive(first)).hasSize(2);
+        assertThat(defaultRows()).isZero();
+
+        // A late row for the same month is archived to a second file, keeping the first
+        insert(march.plusSeconds(120));
+        assertThat(maintenance.archiveExpired(LocalDate.now()))
+                .contains(archiveDir.resolve("audit_log_y2019m03-2.ndjson.gz"));
+        assertThat(readArchive(first)).hasSize(2);
+        assertThat(readArchive(archiveDir.resolve("audit_log_y2019m03-2.ndjson.gz"))).hasSize(1);
+        assertThat(defaultRows()).isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass('audit_log_y2019m03')", String.class)).isNull();
+    }
+
+    private long defaultRows() {
+        return jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM audit_log_default WHERE action = ?", Long.class, ACTION);
+    }
+
+    private List<JsonNode> readArchive(Path file) throws Exception {
+        List<JsonNode> lines = new ArrayList<>();
+        try (var reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(file)), StandardCharsets.UTF_8))) {
+            for (String line; (line = reader.readLine()) != null; ) {
+                lines.add(objectMapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+    private void insert(Instant createdAt) {
+        jdbcTemplate.update("INSERT INTO audit_log (action, details, created_at) VALUES (?, ?, ?)", ps -> {
+            ps.setString(1, ACTION);
+            ps.setString(2, "row");
+            ps.setObject(3, utc(createdAt), Types.TIMESTAMP_WITH_TIMEZONE);
+        });
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.UTC);
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = 'audit_log'::regclass
+                """, String.class);
+    }
+}
@@ -0,0 +1,73 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.audit.AuditLog;
+import com.shotaroi.loan.audit.AuditLogRepository;
+import com.shotaroi.loan.audit.AuditService;
+import com.shotaroi.loan.audit.AuditWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@ActiveProfiles("test")
+class AuditWriterIntegrationTest {
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private AuditLogRepository auditLogRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void queued_entries_are_written_in_batches_with_their_event_time() throws Exception {
+        Instant before = Instant.now().minusSeconds(1);
+        for (int i = 0; i < 500; i++) {
+            auditService.log(null, "AUDIT_WRITER_BATCH_TEST", "n=" + i);
+        }
+
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (count("AUDIT_WRITER_BATCH_TEST") < 500 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertThat(count("AUDIT_WRITER_BATCH_TEST")).isEqualTo(500);
+        assertThat(meterRegistry.get("audit.flush.batch.size").summary().max()).isGreaterThan(1);
+        AuditLog latest = auditLogRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(0, 1)).getContent().get(0);
+        assertThat(latest.getCreatedAt()).isBetween(before, Instant.now().plusSeconds(1));
+    }
+
+    @Test
+    void stop_drains_entries_still_waiting_in_the_queue() {
+        AuditWriter writer = new AuditWriter(jdbcTemplate, new SimpleMeterRegistry(), 1_000, 50,
+                Duration.ofMinutes(1), AuditWriter.OverflowPolicy.BLOCK, Duration.ofMillis(100), Duration.ofSeconds(10));
+        writer.start();
+        for (int i = 0; i < 120; i++) {
+            writer.submit(null, "AUDIT_WRITER_SHUTDOWN_TEST", "n=" + i);
+        }
+
+        writer.stop();
+
+        assertThat(count("AUDIT_WRITER_SHUTDOWN_TEST")).isEqualTo(120);
+    }
+
+    private long count(String action) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM audit_log WHERE action = ?", Long.class, action);
+    }
+}
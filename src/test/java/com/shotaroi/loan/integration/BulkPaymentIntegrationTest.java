@@ -0,0 +1,114 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.payment.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = LoanManagementApplication.class, properties = "app.payments.bulk.chunk-size=3")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class BulkPaymentIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void csv_file_is_applied_in_chunks_with_one_result_per_line() throws Exception {
+        Customer customer = fixtures.customer("bulk-payments@test.com");
+        Loan first = fixtures.loan(customer, START);
+        Loan second = fixtures.loan(customer, START);
+
+        String csv = String.join("\n",
+                "loanId,amount,currency,paymentDate,reference",
+                first.getId() + ",100.00,SEK,2025-02-01,r1",
+                second.getId() + ",50.00,SEK,2025-02-01,r2",
+                first.getId() + ",abc,SEK,2025-02-01,r3",
+                "999999999,10.00,SEK,2025-02-01,r4",
+                second.getId() + ",10.00,EUR,2025-02-01,r5",
+                first.getId() + ",200.00,SEK,2025-02-01,r6",
+                "",
+                second.getId() + ",-5.00,SEK,2025-02-01,r7");
+
+        List<JsonNode> report = ingest("text/csv", csv);
+
+        assertThat(report).extracting(r -> r.get("line").asLong()).containsExactly(2L, 3L, 4L, 5L, 6L, 7L, 9L);
+        assertThat(report).extracting(r -> r.get("status").asText()).containsExactly(
+                "POSTED", "POSTED", "REJECTED", "REJECTED", "REJECTED", "POSTED", "REJECTED");
+        assertThat(report.get(3).get("error").asText()).contains("Loan");
+        assertThat(report.get(4).get("error").asText()).contains("Currency");
+
+        assertThat(paymentService.getPayments(first.getId())).hasSize(2);
+        assertThat(paymentService.getPayments(second.getId())).hasSize(1);
+        BigDecimal outstanding = new BigDecimal(report.get(5).get("newOutstandingPrincipal").asText());
+        assertThat(loanService.getByIdAndCustomer(first.getId(), customer.getId()).getOutstandingPrincipal())
+                .isEqualByComparingTo(outstanding);
+    }
+
+    @Test
+    void ndjson_lines_are_accepted() throws Exception {
+        Customer customer = fixtures.customer("bulk-payments-ndjson@test.com");
+        Loan loan = fixtures.loan(customer, START);
+
+        String ndjson = String.join("\n",
+                "{\"loanId\":" + loan.getId() + ",\"amount\":25.50,\"currency\":\"SEK\",\"paymentDate\":\"2025-02-01\"}",
+                "{\"loanId\":" + loan.getId() + ",\"currency\":\"SEK\"}");
+
+        List<JsonNode> report = ingest("application/x-ndjson", ndjson);
+
+        assertThat(report).extracting(r -> r.get("status").asText()).containsExactly("POSTED", "REJECTED");
+        assertThat(report.get(1).get("error").asText()).contains("missing amount");
+        assertThat(paymentService.getPayments(loan.getId())).hasSize(1);
+    }
+
+    private List<JsonNode> ingest(String contentType, String body) throws Exception {
+        String token = fixtures.adminToken(mockMvc);
+
+        String response = mockMvc.perform(post("/api/admin/payments/bulk")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(contentType)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+
+        List<JsonNode> report = new ArrayList<>();
+        for (String line : response.split("\n")) {
+            report.add(objectMapper.readTree(line));
+        }
+        return report;
+    }
+}
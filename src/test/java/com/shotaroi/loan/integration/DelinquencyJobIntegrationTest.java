@@ -0,0 +1,82 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.job.JobCheckpoint;
+import com.shotaroi.loan.job.JobCheckpointRepository;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.schedule.DelinquencyJob;
+import com.shotaroi.loan.schedule.RepaymentSchedule;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class,
+        properties = {"app.jobs.delinquency.chunk-size=2", "app.jobs.delinquency.parallelism=2"})
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class DelinquencyJobIntegrationTest {
+
+    /** Mid-month, so the three due dates before it (Feb 15, Mar 15, Apr 15) do not depend on the calendar. */
+    private static final LocalDate RUN_DATE = LocalDate.of(2025, 4, 15);
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private RepaymentScheduleRepository scheduleRepository;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private DelinquencyJob delinquencyJob;
+
+    @Test
+    void interrupted_run_resumes_after_checkpoint_and_completed_run_restarts_from_the_beginning() {
+        Customer customer = fixtures.customer("delinquency-job@test.com");
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            loans.add(fixtures.loan(customer, RUN_DATE.minusMonths(3)));
+        }
+
+        // Simulate a run that stopped after the third loan
+        JobCheckpoint checkpoint = checkpointRepository.findById("delinquency")
+                .orElseGet(() -> new JobCheckpoint("delinquency", RUN_DATE));
+        checkpoint.restart(RUN_DATE);
+        checkpoint.advanceTo(loans.get(2).getId());
+        checkpointRepository.save(checkpoint);
+
+        DelinquencyJob.RunResult resumed = delinquencyJob.run(RUN_DATE).orElseThrow();
+
+        assertThat(lateCount(loans.get(0))).isZero();
+        assertThat(lateCount(loans.get(2))).isZero();
+        assertThat(lateCount(loans.get(3))).isEqualTo(2);
+        assertThat(lateCount(loans.get(4))).isEqualTo(2);
+        assertThat(resumed.lastLoanId()).isGreaterThanOrEqualTo(loans.get(4).getId());
+        assertThat(checkpointRepository.findById("delinquency").orElseThrow().isCompleted()).isTrue();
+
+        DelinquencyJob.RunResult rerun = delinquencyJob.run(RUN_DATE).orElseThrow();
+
+        assertThat(rerun.loansProcessed()).isGreaterThanOrEqualTo(5);
+        assertThat(rerun.installmentsMarked()).isGreaterThanOrEqualTo(6);
+        for (Loan loan : loans) {
+            assertThat(lateCount(loan)).isEqualTo(2);
+        }
+    }
+
+    private long lateCount(Loan loan) {
+        return scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.getId()).stream()
+                .filter(s -> s.getStatus() == RepaymentSchedule.InstallmentStatus.LATE)
+                .count();
+    }
+}
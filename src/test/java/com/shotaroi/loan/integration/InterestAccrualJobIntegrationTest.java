@@ -0,0 +1,183 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.job.JobCheckpoint;
+import com.shotaroi.loan.job.JobCheckpointRepository;
+import com.shotaroi.loan.loan.InterestAccrualJob;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanRepository;
+import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.schedule.RepaymentSchedule;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class,
+        properties = {"app.jobs.interest-accrual.chunk-size=2", "app.jobs.interest-accrual.parallelism=2"})
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class InterestAccrualJobIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+    private static final LocalDate ACCRUAL_DATE = LocalDate.of(2025, 4, 15);
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private RepaymentScheduleRepository scheduleRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JobCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private InterestAccrualJob accrualJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void accrues_on_past_due_principal_once_per_date_and_stops_when_arrears_are_paid() {
+        Customer customer = fixtures.customer("interest-accrual@test.com");
+        Loan overdue = fixtures.loan(customer, START);
+        Loan current = fixtures.loan(customer, START);
+        // The second loan is paid up to date; only the first has arrears
+        BigDecimal dueSoFar = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(current.getId()).stream()
+                .filter(s -> s.getDueDate().isBefore(ACCRUAL_DATE))
+                .map(RepaymentSchedule::getTotalDue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        paymentService.postPayment(current.getId(), customer.getId(), dueSoFar, "SEK", ACCRUAL_DATE, "current");
+
+        // Installments due Feb 1, Mar 1 and Apr 1 are unpaid
+        BigDecimal pastDuePrincipal = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(overdue.getId())
+                .stream()
+                .filter(s -> s.getDueDate().isBefore(ACCRUAL_DATE))
+                .map(RepaymentSchedule::getPrincipalDue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        // The ledger keeps the day's full-scale amount; the loan is credited whole cents and carries the rest
+        BigDecimal daily = pastDuePrincipal.multiply(new BigDecimal("0.05"))
+                .multiply(BigDecimal.ONE.divide(BigDecimal.valueOf(365), 10, RoundingMode.HALF_UP))
+                .setScale(10, RoundingMode.HALF_UP);
+        BigDecimal expected = daily.setScale(2, RoundingMode.DOWN);
+        BigDecimal expectedAfterTwoDays = daily.multiply(BigDecimal.TWO).setScale(2, RoundingMode.DOWN);
+
+        InterestAccrualJob.RunResult first = accrualJob.run(ACCRUAL_DATE).orElseThrow();
+
+        assertThat(first.loansProcessed()).isGreaterThanOrEqualTo(2);
+        assertThat(accruedInterest(overdue)).isEqualByComparingTo(expected);
+        assertThat(accruedInterest(current)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(ledger(overdue)).containsExactly(daily);
+        assertThat(checkpointRepository.findById("interest-accrual").orElseThrow().isCompleted()).isTrue();
+
+        // A completed date run again, and a resumed one, add nothing
+        accrualJob.run(ACCRUAL_DATE).orElseThrow();
+        JobCheckpoint checkpoint = checkpointRepository.findById("interest-accrual").orElseThrow();
+        checkpoint.restart(ACCRUAL_DATE);
+        checkpoint.advanceTo(Math.min(overdue.getId(), current.getId()) - 1);
+        checkpointRepository.save(checkpoint);
+        accrualJob.run(ACCRUAL_DATE).orElseThrow();
+        assertThat(accruedInterest(overdue)).isEqualByComparingTo(expected);
+        assertThat(ledger(overdue)).hasSize(1);
+
+        accrualJob.run(ACCRUAL_DATE.plusDays(1)).orElseThrow();
+        assertThat(accruedInterest(overdue)).isEqualByComparingTo(expectedAfterTwoDays);
+
+        // Payments take accrued interest first; once the arrears are cleared nothing more accrues
+        BigDecimal arrears = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(overdue.getId()).stream()
+                .filter(s -> s.getDueDate().isBefore(ACCRUAL_DATE))
+                .map(RepaymentSchedule::getTotalDue)
+                .reduce(accruedInterest(overdue), BigDecimal::add);
+        var payment = paymentService.postPayment(overdue.getId(), customer.getId(), arrears, "SEK",
+                ACCRUAL_DATE.plusDays(1), "arrears");
+        assertThat(payment.allocatedToInterest()).isGreaterThan(expectedAfterTwoDays);
+        assertThat(accruedInterest(overdue)).isEqualByComparingTo(BigDecimal.ZERO);
+
+        accrualJob.run(ACCRUAL_DATE.plusDays(2)).orElseThrow();
+        assertThat(accruedInterest(overdue)).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(ledger(overdue)).hasSize(2);
+    }
+
+    @Test
+    void nightly_run_finishes_an_interrupted_date_and_catches_up_missed_days() {
+        Customer customer = fixtures.customer("interest-accrual-catch-up@test.com");
+        // Due dates Oct 1 to Jan 1 are unpaid; the other test's loans have no arrears before Feb 2
+        Loan loan = fixtures.loan(customer, LocalDate.of(2024, 9, 1));
+        LocalDate interrupted = LocalDate.of(2025, 1, 10);
+
+        // The run for Jan 10 stopped after the chunks before this loan
+        JobCheckpoint checkpoint = checkpointRepository.findById("interest-accrual")
+                .orElseGet(() -> new JobCheckpoint("interest-accrual", interrupted));
+        checkpoint.restart(interrupted);
+        checkpoint.advanceTo(loan.getId() - 1);
+        checkpointRepository.save(checkpoint);
+
+        List<InterestAccrualJob.RunResult> nextDay = accrualJob.catchUp(interrupted.plusDays(1));
+
+        assertThat(nextDay).extracting(InterestAccrualJob.RunResult::accrualDate)
+                .containsExactly(interrupted, interrupted.plusDays(1));
+        assertThat(ledgerDates(loan)).containsExactly(interrupted, interrupted.plusDays(1));
+
+        // Two nights later the missed day is accrued too; a completed date is not run again
+        accrualJob.catchUp(interrupted.plusDays(3));
+        assertThat(accrualJob.catchUp(interrupted.plusDays(3))).isEmpty();
+        assertThat(ledgerDates(loan)).containsExactly(
+                interrupted, interrupted.plusDays(1), interrupted.plusDays(2), interrupted.plusDays(3));
+        assertThat(accruedInterest(loan)).isEqualByComparingTo(
+                ledger(loan).stream().reduce(BigDecimal.ZERO, BigDecimal::add).setScale(2, RoundingMode.DOWN));
+        assertThat(checkpointRepository.findById("interest-accrual").orElseThrow().isCompleted()).isTrue();
+    }
+
+    @Test
+    void arrears_below_a_cent_a_day_still_accrue() {
+        Customer customer = fixtures.customer("interest-accrual-small@test.com");
+        // 120.00 over 12 months: the Feb 1 installment leaves about 9.77 of past-due principal, which earns
+        // about 0.0013 a day at 5% and rounded to cents every day would never accrue anything
+        Loan loan = fixtures.loan(customer, new BigDecimal("120.00"), "SEK", 12, new BigDecimal("0.05"),
+                LocalDate.of(2024, 1, 1));
+        LocalDate first = LocalDate.of(2024, 2, 10);
+
+        for (int day = 0; day < 10; day++) {
+            accrualJob.run(first.plusDays(day)).orElseThrow();
+        }
+
+        List<BigDecimal> ledger = ledger(loan);
+        BigDecimal exact = ledger.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(ledger).hasSize(10).allSatisfy(amount -> assertThat(amount).isPositive());
+        assertThat(exact).isGreaterThan(new BigDecimal("0.01"));
+        assertThat(accruedInterest(loan)).isEqualByComparingTo(exact.setScale(2, RoundingMode.DOWN));
+    }
+
+    private BigDecimal accruedInterest(Loan loan) {
+        return loanRepository.findById(loan.getId()).orElseThrow().getAccruedInterest();
+    }
+
+    private List<BigDecimal> ledger(Loan loan) {
+        return jdbcTemplate.queryForList(
+                "SELECT amount FROM interest_accrual WHERE loan_id = ? ORDER BY accrual_date",
+                BigDecimal.class, loan.getId());
+    }
+
+    private List<LocalDate> ledgerDates(Loan loan) {
+        return jdbcTemplate.queryForList(
+                "SELECT accrual_date FROM interest_accrual WHERE loan_id = ? ORDER BY accrual_date",
+                LocalDate.class, loan.getId());
+    }
+}
@@ -0,0 +1,135 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.payment.Payment;
+import com.shotaroi.loan.payment.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Fetch size 5 so the 12-installment loans span several cursor round trips
+@SpringBootTest(classes = LoanManagementApplication.class, properties = "app.loans.export.fetch-size=5")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class LoanBookExportIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void ndjson_export_groups_installments_and_payments_under_each_loan() throws Exception {
+        Customer customer = fixtures.customer("loan-export-ndjson@test.com");
+        Loan first = fixtures.loan(customer, START);
+        Loan second = fixtures.loan(customer, START);
+        paymentService.postPayment(first.getId(), customer.getId(), new BigDecimal("1500.00"), "SEK",
+                LocalDate.of(2025, 2, 1), "exp-1");
+        paymentService.postPayment(first.getId(), customer.getId(), new BigDecimal("100.00"), "SEK",
+                LocalDate.of(2025, 3, 1), "exp-2");
+
+        String body = export("/api/loans/export", fixtures.token(customer), "application/x-ndjson");
+        List<JsonNode> records = new ArrayList<>();
+        for (String line : body.split("\n")) {
+            records.add(objectMapper.readTree(line));
+        }
+
+        // loan, 12 installments, 2 payments, then the second loan and its 12 installments
+        assertThat(records).hasSize(1 + 12 + 2 + 1 + 12);
+        assertThat(records).extracting(r -> r.get("type").asText()).containsSubsequence(
+                "loan", "installment", "payment", "payment", "loan", "installment");
+        assertThat(records.subList(0, 15)).allMatch(r -> r.get("loanId").asLong() == first.getId());
+        assertThat(records.subList(15, 28)).allMatch(r -> r.get("loanId").asLong() == second.getId());
+        assertThat(records.subList(1, 13)).extracting(r -> r.get("installmentNumber").asInt())
+                .containsExactly(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12);
+        assertThat(records.get(1).get("status").asText()).isEqualTo("PAID");
+
+        Loan reloaded = loanService.getByIdAndCustomer(first.getId(), customer.getId());
+        assertThat(new BigDecimal(records.get(0).get("outstandingPrincipal").asText()))
+                .isEqualByComparingTo(reloaded.getOutstandingPrincipal());
+        Payment payment = paymentService.getPayments(first.getId()).stream()
+                .filter(p -> "exp-1".equals(p.getReference())).findFirst().orElseThrow();
+        JsonNode exported = records.get(13);
+        assertThat(exported.get("paymentId").asLong()).isEqualTo(payment.getId());
+        assertThat(new BigDecimal(exported.get("allocatedToInterest").asText()))
+                .isEqualByComparingTo(payment.getAllocatedToInterest());
+        assertThat(Instant.parse(exported.get("createdAt").asText())).isEqualTo(payment.getCreatedAt());
+    }
+
+    @Test
+    void admin_csv_export_has_one_wide_row_per_record_and_quotes_references() throws Exception {
+        Customer customer = fixtures.customer("loan-export-csv@test.com");
+        Loan loan = fixtures.loan(customer, START);
+        paymentService.postPayment(loan.getId(), customer.getId(), new BigDecimal("50.00"), "SEK",
+                LocalDate.of(2025, 2, 1), "inv 7, \"Q1\"");
+
+        String body = export("/api/admin/loans/export?format=csv&customerId=" + customer.getId(),
+                fixtures.adminToken(mockMvc), "text/csv");
+        String[] lines = body.split("\n");
+
+        assertThat(lines[0]).startsWith("type,loanId,status,currency,principal");
+        assertThat(lines).hasSize(1 + 1 + 12 + 1);
+        assertThat(lines[1]).startsWith("loan," + loan.getId() + ",ACTIVE,SEK,12000.00,");
+        assertThat(lines[2].split(",", -1)).hasSize(lines[0].split(",").length);
+        assertThat(lines[14]).startsWith("payment," + loan.getId() + ",,SEK,")
+                .contains(",\"inv 7, \"\"Q1\"\"\",");
+    }
+
+    @Test
+    void users_cannot_use_the_admin_export() throws Exception {
+        Customer customer = fixtures.customer("loan-export-forbidden@test.com");
+
+        mockMvc.perform(get("/api/admin/loans/export?customerId=1")
+                        .header("Authorization", "Bearer " + fixtures.token(customer)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/loans/export?format=xml")
+                        .header("Authorization", "Bearer " + fixtures.token(customer)))
+                .andExpect(status().isBadRequest());
+    }
+
+    private String export(String url, String token, String contentType) throws Exception {
+        MvcResult started = mockMvc.perform(get(url).header("Authorization", "Bearer " + token))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", contentType))
+                .andReturn().getResponse().getContentAsString();
+    }
+}
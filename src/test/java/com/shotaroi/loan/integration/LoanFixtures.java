@@ -0,0 +1,113 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.common.Role;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.customer.CustomerRepository;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.security.JwtTokenProvider;
+import com.shotaroi.loan.underwriting.LoanApplication;
+import com.shotaroi.loan.underwriting.UnderwritingService;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Customers, applications and loans for integration tests, created through the services rather than the API.
+ * A test pulls it in with {@code @Import(LoanFixtures.class)} and autowires it.
+ * <p>
+ * The default loan is 12000.00 SEK over 12 months at 5%. Customers created here cannot log in; their tokens
+ * are signed directly with {@link #token}. Seeded users ({@code admin@loan.local}, {@code underwriter@loan.local})
+ * log in with {@link #login}.
+ */
+@TestComponent
+public class LoanFixtures {
+
+    public static final BigDecimal PRINCIPAL = new BigDecimal("12000.00");
+    public static final String CURRENCY = "SEK";
+    public static final int TERM_MONTHS = 12;
+    public static final BigDecimal RATE = new BigDecimal("0.05");
+
+    private static final String SEEDED_PASSWORD = "password123";
+
+    private final CustomerRepository customerRepository;
+    private final UnderwritingService underwritingService;
+    private final LoanService loanService;
+    private final JwtTokenProvider jwtTokenProvider;
+    private final ObjectMapper objectMapper;
+
+    public LoanFixtures(CustomerRepository customerRepository, UnderwritingService underwritingService,
+                        LoanService loanService, JwtTokenProvider jwtTokenProvider, ObjectMapper objectMapper) {
+        this.customerRepository = customerRepository;
+        this.underwritingService = underwritingService;
+        this.loanService = loanService;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.objectMapper = objectMapper;
+    }
+
+    public Customer customer(String email) {
+        return customer(email, Role.USER);
+    }
+
+    public Customer customer(String email, Role role) {
+        return customerRepository.save(new Customer(email, "not-a-real-hash", role));
+    }
+
+    /** A SUBMITTED application, left for the underwriting queue. */
+    public LoanApplication application(Customer customer) {
+        return application(customer, PRINCIPAL, CURRENCY, TERM_MONTHS, RATE);
+    }
+
+    public LoanApplication application(Customer customer, BigDecimal principal, String currency, int termMonths,
+                                       BigDecimal annualInterestRate) {
+        return underwritingService.createApplication(
+                customer.getId(), principal, currency, termMonths, annualInterestRate);
+    }
+
+    public LoanApplication approvedApplication(Customer customer, BigDecimal principal, String currency,
+                                               int termMonths, BigDecimal annualInterestRate) {
+        LoanApplication app = application(customer, principal, currency, termMonths, annualInterestRate);
+        return underwritingService.decide(app.getId(), LoanApplication.ApplicationStatus.APPROVED, "Test fixture");
+    }
+
+    public LoanApplication approvedApplication(Customer customer) {
+        return approvedApplication(customer, PRINCIPAL, CURRENCY, TERM_MONTHS, RATE);
+    }
+
+    public Loan loan(Customer customer, LocalDate startDate) {
+        return loan(customer, PRINCIPAL, CURRENCY, TERM_MONTHS, RATE, startDate);
+    }
+
+    public Loan loan(Customer customer, BigDecimal principal, String currency, int termMonths,
+                     BigDecimal annualInterestRate, LocalDate startDate) {
+        LoanApplication app = approvedApplication(customer, principal, currency, termMonths, annualInterestRate);
+        return loanService.createFromApplication(app.getId(), startDate, customer.getId());
+    }
+
+    public String token(Customer customer) {
+        return jwtTokenProvider.createToken(customer.getId(), customer.getEmail(), customer.getRole());
+    }
+
+    /** Access token of a seeded user, through {@code POST /api/auth/login}. */
+    public String login(MockMvc mockMvc, String email) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "email", email,
+                                "password", SEEDED_PASSWORD))))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString()).get("accessToken").asText();
+    }
+
+    public String adminToken(MockMvc mockMvc) throws Exception {
+        return login(mockMvc, "admin@loan.local");
+    }
+}
@@ -13,6 +13,7 @@ import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -174,6 +175,7 @@ class LoanFlowIntegrationTest {
 
         MvcResult paymentResult = mockMvc.perform(post("/api/loans/" + loanId + "/payments")
                         .header("Authorization", "Bearer " + userToken)
+                        .header("Idempotency-Key", "test-ref")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(Map.of(
                                 "amount", 1100,
@@ -188,6 +190,46 @@ class LoanFlowIntegrationTest {
         BigDecimal newOutstanding = new BigDecimal(paymentResp.get("newOutstandingPrincipal").toString());
         assertThat(newOutstanding).isLessThan(outstandingBefore);
 
+        // A client retry with the same key is answered with the original result
+        mockMvc.perform(post("/api/loans/" + loanId + "/payments")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("Idempotency-Key", "test-ref")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "amount", 1100,
+                                "currency", "SEK",
+                                "paymentDate", LocalDate.now().toString(),
+                                "reference", "test-ref"))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.paymentId").value(paymentResp.get("paymentId")))
+                .andExpect(jsonPath("$.newOutstandingPrincipal").value(paymentResp.get("newOutstandingPrincipal")));
+
+        mockMvc.perform(post("/api/loans/" + loanId + "/payments")
+                        .header("Authorization", "Bearer " + userToken)
+                        .header("Idempotency-Key", "test-ref")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "amount", 900,
+                                "currency", "SEK",
+                                "paymentDate", LocalDate.now().toString()))))
+                .andExpect(status().isBadRequest());
+
+        // Without a key the reference is only free text: a second payment citing it is posted
+        mockMvc.perform(post("/api/loans/" + loanId + "/payments")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "amount", 100,
+                                "currency", "SEK",
+                                "paymentDate", LocalDate.now().toString(),
+                                "reference", "test-ref"))))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/loans/" + loanId + "/payments")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+
         MvcResult scheduleResult = mockMvc.perform(get("/api/loans/" + loanId + "/schedule")
                         .header("Authorization", "Bearer " + userToken)
                         .param("size", "100"))
@@ -275,6 +317,70 @@ class LoanFlowIntegrationTest {
                 .andExpect(status().isForbidden());
     }
 
+    @Test
+    void refresh_marks_overdue_installments_late_and_reports_count() throws Exception {
+        String userEmail = "user-late@test.com";
+        String userPassword = "password123";
+
+        mockMvc.perform(post("/api/auth/register")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", userEmail, "password", userPassword))))
+                .andExpect(status().isCreated());
+
+        String userToken = extractToken(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("email", userEmail, "password", userPassword))))
+                .andExpect(status().isOk())
+                .andReturn());
+
+        Long applicationId = extractApplicationId(mockMvc.perform(post("/api/applications")
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "principal", 12000,
+                                "currency", "SEK",
+                                "termMonths", 12,
+                                "annualInterestRate", 0.05))))
+                .andExpect(status().isCreated())
+                .andReturn());
+
+        String uwToken = extractToken(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "email", "underwriter@loan.local",
+                                "password", "password123"))))
+                .andExpect(status().isOk())
+                .andReturn());
+
+        mockMvc.perform(post("/api/underwriting/applications/" + applicationId + "/decision")
+                        .header("Authorization", "Bearer " + uwToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of("decision", "APPROVED", "reason", "OK"))))
+                .andExpect(status().isOk());
+
+        Long loanId = extractLoanId(mockMvc.perform(post("/api/loans/from-application/" + applicationId)
+                        .header("Authorization", "Bearer " + userToken)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "startDate", LocalDate.now().minusMonths(3).toString()))))
+                .andExpect(status().isCreated())
+                .andReturn());
+
+        // Month-end clamping of the chained due dates decides how many fall before today, so count them
+        int overdue = countDueBefore(userToken, loanId, LocalDate.now());
+        assertThat(overdue).isBetween(2, 3);
+
+        mockMvc.perform(post("/api/loans/" + loanId + "/schedule/refresh")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.markedLate").value(overdue));
+
+        mockMvc.perform(post("/api/loans/" + loanId + "/schedule/refresh")
+                        .header("Authorization", "Bearer " + userToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.markedLate").value(0));
+    }
+
     private String extractToken(MvcResult result) throws Exception {
         String body = result.getResponse().getContentAsString();
         return objectMapper.readValue(body, Map.class).get("accessToken").toString();
@@ -285,6 +391,19 @@ class LoanFlowIntegrationTest {
         return Long.valueOf(objectMapper.readValue(body, Map.class).get("applicationId").toString());
     }
 
+    private int countDueBefore(String token, Long loanId, LocalDate date) throws Exception {
+        String body = mockMvc.perform(get("/api/loans/" + loanId + "/schedule")
+                        .header("Authorization", "Bearer " + token)
+                        .param("size", "100"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<?> installments = (List<?>) objectMapper.readValue(body, Map.class).get("content");
+        return (int) installments.stream()
+                .map(i -> LocalDate.parse(((Map<?, ?>) i).get("dueDate").toString()))
+                .filter(dueDate -> dueDate.isBefore(date))
+                .count();
+    }
+
     private Long extractLoanId(MvcResult result) throws Exception {
         String body = result.getResponse().getContentAsString();
         return Long.valueOf(objectMapper.readValue(body, Map.class).get("loanId").toString());
@@ -0,0 +1,71 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.common.exception.ForbiddenException;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanHeaderCache;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.payment.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class LoanHeaderCacheIntegrationTest {
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void repeated_reads_hit_the_cache_and_payments_evict_it() {
+        Customer owner = fixtures.customer("header-cache@test.com");
+        Customer other = fixtures.customer("header-cache-other@test.com");
+        Loan loan = fixtures.loan(owner, LocalDate.of(2025, 1, 1));
+
+        double hitsBefore = gets("hit");
+        double missesBefore = gets("miss");
+        LoanHeaderCache.LoanHeader first = loanService.getHeader(loan.getId(), owner.getId());
+        LoanHeaderCache.LoanHeader second = loanService.getHeader(loan.getId(), owner.getId());
+
+        assertThat(second).isSameAs(first);
+        assertThat(gets("miss") - missesBefore).isEqualTo(1);
+        assertThat(gets("hit") - hitsBefore).isEqualTo(1);
+        assertThatThrownBy(() -> loanService.getHeader(loan.getId(), other.getId()))
+                .isInstanceOf(ForbiddenException.class);
+
+        var result = paymentService.postPayment(loan.getId(), owner.getId(), new BigDecimal("2000.00"), "SEK",
+                LocalDate.of(2025, 2, 1), null);
+        assertThat(loanService.getHeader(loan.getId(), owner.getId()).outstandingPrincipal())
+                .isEqualByComparingTo(result.newOutstandingPrincipal());
+
+        paymentService.postPayment(loan.getId(), owner.getId(), new BigDecimal("20000.00"), "SEK",
+                LocalDate.of(2025, 3, 1), null);
+        assertThat(loanService.getHeader(loan.getId(), owner.getId()).status()).isEqualTo(Loan.LoanStatus.CLOSED);
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("cache", "loan.headers").tag("result", result)
+                .functionCounter().count();
+    }
+}
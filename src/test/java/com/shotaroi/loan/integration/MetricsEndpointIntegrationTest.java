@@ -0,0 +1,74 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.payment.PaymentService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalManagementPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A real server, so actuator gets its own management port next to the API port
+@SpringBootTest(classes = LoanManagementApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class MetricsEndpointIntegrationTest {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @LocalManagementPort
+    private int managementPort;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void prometheus_endpoint_exposes_hot_path_timers_with_slo_buckets() {
+        Customer owner = fixtures.customer("metrics@test.com");
+        Loan loan = fixtures.loan(owner, LocalDate.of(2025, 1, 1));
+        paymentService.postPayment(loan.getId(), owner.getId(), new BigDecimal("2000.00"), "SEK",
+                LocalDate.of(2025, 2, 1), "metrics-1");
+
+        ResponseEntity<String> scrape = restTemplate.getForEntity(
+                "http://localhost:" + managementPort + "/actuator/prometheus", String.class);
+        assertThat(scrape.getStatusCode().is2xxSuccessful()).isTrue();
+        List<String> lines = scrape.getBody().lines().toList();
+
+        assertThat(lines).anyMatch(l -> l.startsWith("payment_post_seconds_bucket")
+                && l.contains("outcome=\"posted\"") && l.contains("le=\"0.05\""));
+        for (String phase : List.of("load", "allocation", "installment.saves", "loan.save")) {
+            assertThat(lines).anyMatch(l -> l.startsWith("payment_phase_seconds_count")
+                    && l.contains("phase=\"" + phase + "\""));
+        }
+        assertThat(lines).anyMatch(l -> l.startsWith("loan_create_seconds_bucket"));
+        assertThat(lines).anyMatch(l -> l.startsWith("schedule_generate_seconds_bucket")
+                && l.contains("engine=\"BIG_DECIMAL\""));
+        assertThat(lines).anyMatch(l -> l.startsWith("underwriting_decide_seconds_count")
+                && l.contains("source=\"manual\"") && l.contains("decision=\"APPROVED\""));
+        assertThat(lines).anyMatch(l -> l.startsWith("audit_write_seconds_count"));
+    }
+
+    @Test
+    void api_port_does_not_serve_actuator() {
+        ResponseEntity<String> scrape = restTemplate.getForEntity("/actuator/prometheus", String.class);
+
+        assertThat(scrape.getStatusCode().is4xxClientError()).isTrue();
+    }
+}
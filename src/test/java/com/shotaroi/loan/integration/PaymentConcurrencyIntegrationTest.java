@@ -0,0 +1,110 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanRepository;
+import com.shotaroi.loan.payment.Payment;
+import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.schedule.RepaymentSchedule;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class PaymentConcurrencyIntegrationTest {
+
+    private static final int HOT_LOANS = 3;
+    private static final int PAYMENTS = 2_000;
+    private static final int THREADS = 16;
+    private static final BigDecimal AMOUNT = new BigDecimal("10.00");
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private RepaymentScheduleRepository scheduleRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Test
+    void parallel_payments_on_hot_loans_reconcile() throws Exception {
+        Customer customer = fixtures.customer("payment-concurrency@test.com");
+        List<Loan> loans = new ArrayList<>();
+        for (int i = 0; i < HOT_LOANS; i++) {
+            loans.add(fixtures.loan(customer, new BigDecimal("120000.00"), "SEK", 12, new BigDecimal("0.05"),
+                    LocalDate.of(2025, 1, 1)));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PaymentService.PaymentResult>> futures = new ArrayList<>(PAYMENTS);
+        try {
+            for (int n = 0; n < PAYMENTS; n++) {
+                Long loanId = loans.get(n % HOT_LOANS).getId();
+                String reference = "stress-" + n;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return paymentService.postPayment(loanId, customer.getId(), AMOUNT, "SEK",
+                            LocalDate.of(2025, 2, 1), reference);
+                }));
+            }
+            start.countDown();
+            for (Future<PaymentService.PaymentResult> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Loan created : loans) {
+            Loan loan = loanRepository.findById(created.getId()).orElseThrow();
+            List<Payment> payments = paymentService.getPayments(loan.getId());
+            List<RepaymentSchedule> installments =
+                    scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.getId());
+
+            BigDecimal paid = sum(payments.stream().map(Payment::getAmount).toList());
+            BigDecimal toInterest = sum(payments.stream().map(Payment::getAllocatedToInterest).toList());
+            BigDecimal toPrincipal = sum(payments.stream().map(Payment::getAllocatedToPrincipal).toList());
+            BigDecimal installmentsPaid = sum(installments.stream().map(RepaymentSchedule::getAmountPaid).toList());
+            BigDecimal installmentPrincipalPaid = sum(installments.stream()
+                    .map(s -> s.getAmountPaid().subtract(s.getInterestDue()).max(BigDecimal.ZERO)
+                            .min(s.getPrincipalDue()))
+                    .toList());
+
+            int expectedCount = PAYMENTS / HOT_LOANS + (loans.indexOf(created) < PAYMENTS % HOT_LOANS ? 1 : 0);
+            assertThat(payments).hasSize(expectedCount);
+            assertThat(paid).isEqualByComparingTo(AMOUNT.multiply(BigDecimal.valueOf(expectedCount)));
+            assertThat(toInterest.add(toPrincipal)).isEqualByComparingTo(paid);
+            assertThat(installmentsPaid).as("installment amount_paid matches payments").isEqualByComparingTo(paid);
+            assertThat(loan.getPrincipal().subtract(loan.getOutstandingPrincipal()))
+                    .as("outstanding principal reduced by every payment")
+                    .isEqualByComparingTo(toPrincipal);
+            assertThat(installmentPrincipalPaid).isEqualByComparingTo(toPrincipal);
+        }
+    }
+
+    private static BigDecimal sum(List<BigDecimal> values) {
+        return values.stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
@@ -0,0 +1,127 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.schedule.RepaymentSchedule;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class PortfolioAnalyticsIntegrationTest {
+
+    // A currency no other test uses, so the portfolio-wide aggregates can be asserted exactly
+    private static final String CURRENCY = "XAN";
+    private static final LocalDate AS_OF = LocalDate.of(2025, 3, 15);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private RepaymentScheduleRepository scheduleRepository;
+
+    @Test
+    void balances_and_delinquency_buckets_are_aggregated_per_currency() throws Exception {
+        Customer customer = fixtures.customer("portfolio-analytics@test.com");
+        // Oldest unpaid due dates relative to 2025-03-15: 42 days, 104 days, 23 days, nothing overdue
+        Loan late42 = loan(customer, LocalDate.of(2025, 1, 1));
+        Loan late104 = loan(customer, LocalDate.of(2024, 11, 1));
+        Loan late23 = loan(customer, LocalDate.of(2025, 1, 20));
+        Loan current = loan(customer, LocalDate.of(2025, 1, 1));
+        for (int i = 0; i < 2; i++) {
+            paymentService.postPayment(current.getId(), customer.getId(), new BigDecimal("1100.00"), CURRENCY,
+                    LocalDate.of(2025, 2 + i, 1), null);
+        }
+
+        String token = fixtures.adminToken(mockMvc);
+        JsonNode analytics = analytics(token, false);
+
+        JsonNode balance = only(analytics.get("byCurrency"), CURRENCY);
+        assertThat(balance.get("loanCount").asLong()).isEqualTo(4);
+        BigDecimal outstanding = List.of(late42, late104, late23, current).stream()
+                .map(l -> loanService.getByIdAndCustomer(l.getId(), customer.getId()).getOutstandingPrincipal())
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(new BigDecimal(balance.get("outstandingPrincipal").asText())).isEqualByComparingTo(outstanding);
+        JsonNode active = only(analytics.get("byStatus"), CURRENCY);
+        assertThat(active.get("status").asText()).isEqualTo("ACTIVE");
+        assertThat(active.get("loanCount").asLong()).isEqualTo(4);
+
+        List<JsonNode> buckets = new ArrayList<>();
+        analytics.get("delinquency").forEach(b -> {
+            if (b.get("currency").asText().equals(CURRENCY)) {
+                buckets.add(b);
+            }
+        });
+        assertThat(buckets).extracting(b -> b.get("bucket").asText()).containsExactly("1-30", "31-60", "90+");
+        assertThat(buckets).extracting(b -> b.get("loanCount").asLong()).containsExactly(1L, 1L, 1L);
+        // 31-60: the installments due 2025-02-01 and 2025-03-01, nothing paid
+        BigDecimal overdue = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(late42.getId()).stream()
+                .filter(r -> r.getDueDate().isBefore(AS_OF))
+                .map(RepaymentSchedule::getTotalDue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(new BigDecimal(buckets.get(1).get("overdueAmount").asText())).isEqualByComparingTo(overdue);
+
+        // Cached until refreshed
+        assertThat(analytics(token, false).get("computedAt")).isEqualTo(analytics.get("computedAt"));
+        assertThat(analytics(token, true).get("computedAt")).isNotEqualTo(analytics.get("computedAt"));
+    }
+
+    private JsonNode analytics(String token, boolean refresh) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/admin/loans/analytics")
+                        .param("asOf", AS_OF.toString())
+                        .param("refresh", String.valueOf(refresh))
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private Loan loan(Customer customer, LocalDate startDate) {
+        return fixtures.loan(customer, LoanFixtures.PRINCIPAL, CURRENCY, LoanFixtures.TERM_MONTHS, LoanFixtures.RATE,
+                startDate);
+    }
+
+    private static JsonNode only(JsonNode rows, String currency) {
+        List<JsonNode> matching = new ArrayList<>();
+        rows.forEach(r -> {
+            if (r.get("currency").asText().equals(currency)) {
+                matching.add(r);
+            }
+        });
+        assertThat(matching).hasSize(1);
+        return matching.get(0);
+    }
+}
@@ -0,0 +1,92 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanRepository;
+import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.schedule.PrepaymentMode;
+import com.shotaroi.loan.schedule.RepaymentSchedule;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import com.shotaroi.loan.schedule.ScheduleService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class PrepaymentIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanRepository loanRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private RepaymentScheduleRepository scheduleRepository;
+
+    @Test
+    void prepayment_shortens_the_schedule_and_a_paid_quote_closes_the_loan() {
+        Customer customer = fixtures.customer("prepayment@test.com");
+        Loan loan = fixtures.loan(customer, START);
+        BigDecimal firstInstallment = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.getId())
+                .get(0).getTotalDue();
+
+        paymentService.postPayment(loan.getId(), customer.getId(), firstInstallment.add(new BigDecimal("4000.00")),
+                "SEK", LocalDate.of(2025, 2, 1), "prepay-1", "prepay-1", PrepaymentMode.REDUCE_TERM);
+
+        List<RepaymentSchedule> installments = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.getId());
+        List<RepaymentSchedule> open = installments.stream()
+                .filter(s -> s.getStatus() != RepaymentSchedule.InstallmentStatus.PAID)
+                .toList();
+        Loan prepaid = loanRepository.findById(loan.getId()).orElseThrow();
+        assertThat(installments).hasSizeLessThan(12);
+        assertThat(open.stream().map(RepaymentSchedule::getPrincipalDue).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(prepaid.getOutstandingPrincipal());
+        assertThat(prepaid.getEndDate()).isEqualTo(installments.get(installments.size() - 1).getDueDate());
+
+        var summary = scheduleService.getSummary(loan.getId());
+        assertThat(summary.paidCount()).isEqualTo(1);
+        assertThat(summary.pendingCount()).isEqualTo(open.size());
+        assertThat(summary.totalRemaining()).isEqualByComparingTo(
+                open.stream().map(RepaymentSchedule::getTotalDue).reduce(BigDecimal.ZERO, BigDecimal::add));
+        assertThat(summary.nextDueDate()).contains(LocalDate.of(2025, 3, 1));
+
+        // The March installment is due and unpaid, so its interest is part of the quote
+        var quote = paymentService.quotePayoff(loan.getId(), customer.getId(), LocalDate.of(2025, 3, 15));
+        assertThat(quote.interestDue()).isEqualByComparingTo(open.get(0).getInterestDue());
+        assertThat(quote.payoffAmount()).isEqualByComparingTo(
+                prepaid.getOutstandingPrincipal().add(open.get(0).getInterestDue()));
+        assertThat(quote.validThrough()).isEqualTo(LocalDate.of(2025, 3, 31));
+
+        var payoff = paymentService.postPayment(loan.getId(), customer.getId(), quote.payoffAmount(), "SEK",
+                quote.quoteDate(), "payoff", "payoff", PrepaymentMode.REDUCE_INSTALLMENT);
+
+        assertThat(payoff.newOutstandingPrincipal()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(loanRepository.findById(loan.getId()).orElseThrow().getStatus()).isEqualTo(Loan.LoanStatus.CLOSED);
+        assertThat(scheduleRepository.findOpenInstallments(loan.getId())).isEmpty();
+        var closed = scheduleService.getSummary(loan.getId());
+        assertThat(closed.pendingCount()).isZero();
+        assertThat(closed.paidCount()).isEqualTo(2);
+        assertThat(closed.totalRemaining()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(closed.nextDueDate()).isEmpty();
+    }
+}
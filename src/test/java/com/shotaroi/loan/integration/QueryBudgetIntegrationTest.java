@@ -0,0 +1,136 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Statement budgets per endpoint. A budget that starts failing means a change added round trips to a hot
+ * path: either raise the budget deliberately or batch the new work. Counts must also stay flat as the
+ * number of installments grows, which is what catches per-row queries.
+ */
+@SpringBootTest(classes = LoanManagementApplication.class, properties = QueryCounter.PROPERTY)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class QueryBudgetIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetIntegrationTest.class);
+
+    /** Application, duplicate check, loan insert, id block, installment batch, summary merge and insert. */
+    private static final int LOAN_CREATION_BUDGET = 10;
+    /** Loan lock, open installments, summary delta, payment insert, flush; a keyed payment adds two lookups. */
+    private static final int PAYMENT_BUDGET = 10;
+    /** Loan header and summary row. */
+    private static final int SUMMARY_BUDGET = 2;
+    /** Loan header, one page of installments and its count. */
+    private static final int SCHEDULE_PAGE_BUDGET = 3;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Test
+    void loan_creation_payment_and_reads_stay_within_statement_budgets() throws Exception {
+        Customer customer = fixtures.customer("query-budget@test.com");
+        String token = fixtures.token(customer);
+        Long shortApp = fixtures.approvedApplication(customer).getId();
+        Long longApp = fixtures.approvedApplication(customer, LoanFixtures.PRINCIPAL, LoanFixtures.CURRENCY, 48,
+                LoanFixtures.RATE).getId();
+
+        Long loanId;
+        int shortCreation;
+        try (var queries = QueryCounter.record()) {
+            loanId = createLoan(token, shortApp);
+            shortCreation = queries.count();
+            queries.assertAtMost(LOAN_CREATION_BUDGET);
+        }
+        try (var queries = QueryCounter.record()) {
+            createLoan(token, longApp);
+            log.info("Loan creation: {} statements for 12 installments, {} for 48", shortCreation, queries.count());
+            queries.assertAtMost(LOAN_CREATION_BUDGET);
+            // 48 rows still fit one insert batch; at most one more id block may be fetched
+            assertThat(queries.count()).isLessThanOrEqualTo(shortCreation + 1);
+        }
+
+        int onePaid;
+        try (var queries = QueryCounter.record()) {
+            postPayment(token, loanId, "500.00", "budget-1");
+            onePaid = queries.count();
+            queries.assertAtMost(PAYMENT_BUDGET);
+        }
+        try (var queries = QueryCounter.record()) {
+            // Finishes the first installment and pays several more in full
+            postPayment(token, loanId, "5000.00", "budget-2");
+            log.info("Payment: {} statements touching 1 installment, {} touching 6", onePaid, queries.count());
+            queries.assertAtMost(PAYMENT_BUDGET);
+            assertThat(queries.count()).isEqualTo(onePaid);
+        }
+
+        try (var queries = QueryCounter.record()) {
+            mockMvc.perform(get("/api/loans/" + loanId + "/schedule/summary")
+                            .header("Authorization", "Bearer " + token))
+                    .andExpect(status().isOk());
+            queries.assertAtMost(SUMMARY_BUDGET);
+            queries.assertNoStatementRepeatedMoreThan(1);
+        }
+
+        try (var queries = QueryCounter.record()) {
+            mockMvc.perform(get("/api/loans/" + loanId + "/schedule")
+                            .header("Authorization", "Bearer " + token)
+                            .param("size", "12"))
+                    .andExpect(status().isOk());
+            queries.assertAtMost(SCHEDULE_PAGE_BUDGET);
+            queries.assertNoStatementRepeatedMoreThan(1);
+        }
+    }
+
+    private Long createLoan(String token, Long applicationId) throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/loans/from-application/" + applicationId)
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "startDate", LocalDate.of(2025, 1, 1).toString()))))
+                .andExpect(status().isCreated())
+                .andReturn();
+        String body = result.getResponse().getContentAsString();
+        return Long.valueOf(objectMapper.readValue(body, Map.class).get("loanId").toString());
+    }
+
+    private void postPayment(String token, Long loanId, String amount, String reference) throws Exception {
+        mockMvc.perform(post("/api/loans/" + loanId + "/payments")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "amount", new BigDecimal(amount),
+                                "currency", "SEK",
+                                "paymentDate", LocalDate.of(2025, 2, 1).toString(),
+                                "reference", reference))))
+                .andExpect(status().isCreated());
+    }
+}
@@ -0,0 +1,111 @@
+package com.shotaroi.loan.integration;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Hibernate statement inspector for integration tests. It counts the SQL that Hibernate prepares on a
+ * thread while a {@link Recording} is open there and passes every statement through unchanged.
+ * Batched inserts and updates count once per batch, like a prepared statement. Plain JDBC
+ * ({@code JdbcTemplate}) is not seen.
+ * <p>
+ * A test opts in with {@link #PROPERTY} in its {@code @SpringBootTest} properties.
+ * <p>
+ * MockMvc runs the request on the test thread, so a recording around {@code mockMvc.perform} holds
+ * exactly that request's statements:
+ * <pre>
+ * try (var queries = QueryCounter.record()) {
+ *     mockMvc.perform(...);
+ *     queries.assertAtMost(8);
+ * }
+ * </pre>
+ */
+public class QueryCounter implements StatementInspector {
+
+    public static final String PROPERTY =
+            "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                    + "com.shotaroi.loan.integration.QueryCounter";
+
+    private static final ThreadLocal<Recording> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        Recording recording = CURRENT.get();
+        if (recording != null) {
+            recording.statements.add(sql);
+        }
+        return sql;
+    }
+
+    /** Starts counting on the current thread; close the recording to stop. */
+    public static Recording record() {
+        Recording recording = new Recording();
+        CURRENT.set(recording);
+        return recording;
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final List<String> statements = new ArrayList<>();
+
+        private Recording() {}
+
+        public int count() {
+            return statements.size();
+        }
+
+        /** Statements whose SQL starts with the given verb, e.g. {@code "select"}. */
+        public int count(String verb) {
+            String prefix = verb.toLowerCase(Locale.ROOT);
+            return (int) statements.stream()
+                    .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith(prefix))
+                    .count();
+        }
+
+        public List<String> statements() {
+            return List.copyOf(statements);
+        }
+
+        /**
+         * Statements prepared more than once with the same SQL, with their counts. A query repeated once
+         * per row of a result is how an N+1 shows up here.
+         */
+        public Map<String, Long> repeated() {
+            return statements.stream()
+                    .collect(Collectors.groupingBy(sql -> sql, LinkedHashMap::new, Collectors.counting()))
+                    .entrySet().stream()
+                    .filter(e -> e.getValue() > 1)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue, (a, b) -> a,
+                            LinkedHashMap::new));
+        }
+
+        /** Fails with the recorded SQL when more than {@code max} statements were prepared. */
+        public void assertAtMost(int max) {
+            assertThat(count())
+                    .as("statements prepared (budget %d):%n%s", max, String.join(System.lineSeparator(), statements))
+                    .isLessThanOrEqualTo(max);
+        }
+
+        /** Fails when any SQL was prepared more than {@code maxRepeats} times. */
+        public void assertNoStatementRepeatedMoreThan(int maxRepeats) {
+            assertThat(repeated())
+                    .as("statements repeated more than %d times", maxRepeats)
+                    .allSatisfy((sql, times) -> assertThat(times).as(sql).isLessThanOrEqualTo(maxRepeats));
+        }
+
+        @Override
+        public void close() {
+            if (CURRENT.get() == this) {
+                CURRENT.remove();
+            }
+        }
+    }
+}
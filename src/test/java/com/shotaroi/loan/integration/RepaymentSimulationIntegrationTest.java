@@ -0,0 +1,95 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class RepaymentSimulationIntegrationTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void simulation_is_owner_only_and_writes_nothing() throws Exception {
+        Customer owner = fixtures.customer("simulation-owner@test.com");
+        Customer other = fixtures.customer("simulation-other@test.com");
+        Loan loan = fixtures.loan(owner, START);
+        String body = objectMapper.writeValueAsString(Map.of("scenarios", List.of(
+                Map.of("name", "extra-500", "extraMonthly", "500.00", "mode", "REDUCE_TERM"),
+                Map.of("name", "bonus", "lumpSum", "3000.00", "lumpSumDate", "2025-06-01",
+                        "mode", "REDUCE_INSTALLMENT"))));
+        Map<String, Object> before = snapshot(loan);
+
+        mockMvc.perform(post("/api/loans/" + loan.getId() + "/simulations")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/loans/" + loan.getId() + "/simulations")
+                        .header("Authorization", "Bearer " + fixtures.token(other))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isForbidden());
+
+        mockMvc.perform(post("/api/loans/" + loan.getId() + "/simulations")
+                        .header("Authorization", "Bearer " + fixtures.token(owner))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.loanId").value(loan.getId()))
+                .andExpect(jsonPath("$.baseline.installments").value(LoanFixtures.TERM_MONTHS))
+                .andExpect(jsonPath("$.scenarios[0].name").value("extra-500"))
+                .andExpect(jsonPath("$.scenarios[0].monthsSaved").value(greaterThan(0)))
+                .andExpect(jsonPath("$.scenarios[1].name").value("bonus"))
+                .andExpect(jsonPath("$.scenarios[1].monthsSaved").value(0));
+
+        // Schedule, loan, summary and payments are exactly as before
+        assertThat(snapshot(loan)).isEqualTo(before);
+    }
+
+    private Map<String, Object> snapshot(Loan loan) {
+        return Map.of(
+                "loan", jdbcTemplate.queryForMap("SELECT * FROM loan WHERE id = ?", loan.getId()),
+                "schedule", jdbcTemplate.queryForList(
+                        "SELECT * FROM repayment_schedule WHERE loan_id = ? ORDER BY id", loan.getId()),
+                "summary", jdbcTemplate.queryForMap(
+                        "SELECT * FROM loan_schedule_summary WHERE loan_id = ?", loan.getId()),
+                "payments", jdbcTemplate.queryForObject(
+                        "SELECT COUNT(*) FROM payment WHERE loan_id = ?", Long.class, loan.getId()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import com.shotaroi.loan.underwriting.LoanApplication;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class ScheduleBatchInsertIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(ScheduleBatchInsertIntegrationTest.class);
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private RepaymentScheduleRepository scheduleRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void creating_360_month_loan_writes_schedule_in_batches() {
+        Customer customer = fixtures.customer("batch-insert@test.com");
+        LoanApplication app = fixtures.approvedApplication(
+                customer, new BigDecimal("2500000.00"), "SEK", 360, new BigDecimal("0.045"));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Loan loan = loanService.createFromApplication(app.getId(), LocalDate.of(2025, 1, 15), customer.getId());
+
+        long statements = statistics.getPrepareStatementCount();
+        log.info("Round trips for a 360-month loan: {} prepared statements, {} entity inserts",
+                statements, statistics.getEntityInsertCount());
+
+        assertThat(scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.getId())).hasSize(360);
+        // loan + 360 installments + schedule summary
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(362);
+        assertThat(statements).isLessThanOrEqualTo(25);
+    }
+}
@@ -0,0 +1,87 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.schedule.RepaymentSchedule;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import com.shotaroi.loan.schedule.ScheduleService;
+import com.shotaroi.loan.schedule.ScheduleSummaryReconciliationJob;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class ScheduleSummaryIntegrationTest {
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private ScheduleService scheduleService;
+
+    @Autowired
+    private RepaymentScheduleRepository scheduleRepository;
+
+    @Autowired
+    private ScheduleSummaryReconciliationJob reconciliationJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void summary_follows_late_marking_and_payments_and_reconciles_with_installments() {
+        Customer customer = fixtures.customer("schedule-summary@test.com");
+        // Started long enough ago that the first installments are overdue
+        LocalDate start = LocalDate.now().minusMonths(4);
+        Loan loan = fixtures.loan(customer, start);
+        List<RepaymentSchedule> installments = scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(loan.getId());
+
+        var created = scheduleService.getSummary(loan.getId());
+        assertThat(created.pendingCount()).isEqualTo(12);
+        assertThat(created.paidCount()).isZero();
+        assertThat(created.nextDueDate()).contains(installments.get(0).getDueDate());
+        assertThat(created.totalRemaining()).isEqualByComparingTo(
+                installments.stream().map(RepaymentSchedule::getTotalDue).reduce(BigDecimal.ZERO, BigDecimal::add));
+
+        int marked = scheduleService.refreshLateStatus(loan.getId());
+        assertThat(marked).isGreaterThanOrEqualTo(3);
+        assertThat(scheduleService.getSummary(loan.getId()).lateCount()).isEqualTo(marked);
+
+        // Pays the first (late) installment in full and part of the second
+        BigDecimal amount = installments.get(0).getTotalDue().add(new BigDecimal("100.00"));
+        paymentService.postPayment(loan.getId(), customer.getId(), amount, "SEK", LocalDate.now(), null);
+
+        var afterPayment = scheduleService.getSummary(loan.getId());
+        assertThat(afterPayment.paidCount()).isEqualTo(1);
+        assertThat(afterPayment.pendingCount()).isEqualTo(11);
+        assertThat(afterPayment.lateCount()).isEqualTo(marked - 1);
+        assertThat(afterPayment.totalPaid()).isEqualByComparingTo(installments.get(0).getTotalDue());
+        assertThat(afterPayment.totalRemaining()).isEqualByComparingTo(created.totalRemaining().subtract(amount));
+        assertThat(afterPayment.nextDueDate()).contains(installments.get(1).getDueDate());
+
+        var clean = reconciliationJob.run().orElseThrow();
+        assertThat(clean.mismatches()).isZero();
+
+        jdbcTemplate.update("UPDATE loan_schedule_summary SET paid_count = 99 WHERE loan_id = ?", loan.getId());
+        var repaired = reconciliationJob.run().orElseThrow();
+        assertThat(repaired.mismatches()).isEqualTo(1);
+        assertThat(repaired.repaired()).isEqualTo(1);
+        assertThat(scheduleService.getSummary(loan.getId())).isEqualTo(afterPayment);
+    }
+}
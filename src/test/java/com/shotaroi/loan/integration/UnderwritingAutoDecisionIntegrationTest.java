@@ -0,0 +1,170 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.underwriting.UnderwritingRuleEngine;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = LoanManagementApplication.class)
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class UnderwritingAutoDecisionIntegrationTest {
+
+    private static final String RULES = """
+            {"version": "%s", "rules": [
+              {"name": "reject-delinquent", "decision": "REJECTED", "reason": "Overdue installments",
+               "when": [{"fact": "maxDaysPastDue", "op": "gt", "value": 30}]},
+              {"name": "approve-small", "decision": "APPROVED", "reason": "Within limits",
+               "when": [{"fact": "principal", "op": "lte", "value": %d},
+                        {"fact": "exposure", "op": "lte", "value": 100000}]}
+            ]}""";
+
+    private static final Path RULES_FILE;
+
+    static {
+        try {
+            RULES_FILE = Files.createTempDirectory("underwriting-rules").resolve("rules.json");
+            Files.writeString(RULES_FILE, RULES.formatted("v1", 50000));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @DynamicPropertySource
+    static void rules(DynamicPropertyRegistry registry) {
+        registry.add("app.underwriting.auto-decision.enabled", () -> "true");
+        registry.add("app.underwriting.rules.location", () -> RULES_FILE.toUri().toString());
+        // Reloads are triggered explicitly below
+        registry.add("app.underwriting.rules.reload-interval-ms", () -> "3600000");
+    }
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private LoanService loanService;
+
+    @Autowired
+    private UnderwritingRuleEngine ruleEngine;
+
+    @Test
+    void clean_small_application_is_approved_at_submission_with_a_trace() throws Exception {
+        Customer customer = fixtures.customer("auto-decision-approve@test.com");
+
+        JsonNode app = submit(customer, 20000);
+
+        assertThat(app.get("status").asText()).isEqualTo("APPROVED");
+        assertThat(app.get("decisionReason").asText()).isEqualTo("Rule approve-small: Within limits");
+        JsonNode trace = trace(app.get("applicationId").asLong());
+        assertThat(trace.get("rule").asText()).isEqualTo("approve-small");
+        assertThat(trace.get("trace").get(0).get("matched").asBoolean()).isFalse();
+        assertThat(trace.get("trace").get(1).get("conditions").get(1).get("fact").asText()).isEqualTo("exposure");
+    }
+
+    @Test
+    void customer_with_a_long_overdue_loan_is_rejected() throws Exception {
+        Customer customer = fixtures.customer("auto-decision-delinquent@test.com");
+        // Approved while clean; nothing has been paid since the first installment fell due
+        JsonNode first = submit(customer, 12000);
+        loanService.createFromApplication(first.get("applicationId").asLong(), LocalDate.now().minusMonths(3),
+                customer.getId());
+
+        JsonNode second = submit(customer, 5000);
+
+        assertThat(second.get("status").asText()).isEqualTo("REJECTED");
+        JsonNode failed = trace(second.get("applicationId").asLong()).get("trace").get(0).get("conditions").get(0);
+        assertThat(failed.get("passed").asBoolean()).isTrue();
+        assertThat(failed.get("actual").asInt()).isGreaterThan(30);
+    }
+
+    @Test
+    void application_matching_no_rule_stays_in_the_manual_queue() throws Exception {
+        Customer customer = fixtures.customer("auto-decision-manual@test.com");
+
+        JsonNode app = submit(customer, 90000);
+
+        assertThat(app.get("status").asText()).isEqualTo("SUBMITTED");
+        JsonNode trace = trace(app.get("applicationId").asLong());
+        assertThat(trace.get("decision").isNull()).isTrue();
+        assertThat(trace.get("rulesVersion").asText()).isEqualTo(ruleEngine.rules().version());
+    }
+
+    @Test
+    void edited_rule_file_is_hot_reloaded_and_a_broken_edit_keeps_the_previous_rules() throws Exception {
+        Customer customer = fixtures.customer("auto-decision-reload@test.com");
+        try {
+            rewriteRules(RULES.formatted("v2", 100000), 1);
+            ruleEngine.reloadIfChanged();
+            assertThat(ruleEngine.rules().version()).isEqualTo("v2");
+            assertThat(submit(customer, 90000).get("status").asText()).isEqualTo("APPROVED");
+
+            rewriteRules("{\"version\": \"v3\", \"rules\": [{\"name\": \"x\", \"decision\": \"MAYBE\"}]}", 2);
+            ruleEngine.reloadIfChanged();
+            assertThat(ruleEngine.rules().version()).isEqualTo("v2");
+        } finally {
+            rewriteRules(RULES.formatted("v1", 50000), 3);
+            ruleEngine.reloadIfChanged();
+        }
+        assertThat(ruleEngine.rules().version()).isEqualTo("v1");
+    }
+
+    private static void rewriteRules(String content, int minutesAhead) throws IOException {
+        Files.writeString(RULES_FILE, content);
+        // Make the change visible even on file systems with coarse modification times
+        Files.setLastModifiedTime(RULES_FILE, FileTime.from(Instant.now().plusSeconds(60L * minutesAhead)));
+    }
+
+    private JsonNode submit(Customer customer, int principal) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/applications")
+                        .header("Authorization", "Bearer " + fixtures.token(customer))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(Map.of(
+                                "principal", principal,
+                                "currency", "SEK",
+                                "termMonths", 12,
+                                "annualInterestRate", 0.05))))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString());
+    }
+
+    private JsonNode trace(long applicationId) throws Exception {
+        String token = fixtures.login(mockMvc, "underwriter@loan.local");
+        return objectMapper.readTree(mockMvc.perform(get("/api/underwriting/applications/{id}/decision-trace",
+                        applicationId).header("Authorization", "Bearer " + token))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+    }
+}
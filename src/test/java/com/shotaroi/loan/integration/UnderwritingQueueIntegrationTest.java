@@ -0,0 +1,188 @@
+package com.shotaroi.loan.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.common.Role;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.underwriting.LoanApplication;
+import com.shotaroi.loan.underwriting.LoanApplicationRepository;
+import com.shotaroi.loan.underwriting.UnderwritingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(classes = LoanManagementApplication.class, properties = "app.underwriting.lease-duration=15m")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(LoanFixtures.class)
+class UnderwritingQueueIntegrationTest {
+
+    private static final Duration LEASE = Duration.ofMinutes(15);
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private LoanFixtures fixtures;
+
+    @Autowired
+    private UnderwritingService underwritingService;
+
+    @Autowired
+    private LoanApplicationRepository applicationRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void concurrent_claims_hand_each_application_to_one_underwriter_until_the_lease_expires() throws Exception {
+        Customer applicant = fixtures.customer("queue-applicant@test.com");
+        List<Long> mine = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            mine.add(fixtures.application(applicant).getId());
+        }
+        List<Long> underwriters = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            underwriters.add(fixtures.customer("queue-underwriter-" + i + "@test.com", Role.UNDERWRITER).getId());
+        }
+
+        // Four underwriters drain the whole queue (including other tests' leftovers) three at a time
+        Instant now = Instant.now();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> results = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(underwriters.size())) {
+            for (Long underwriter : underwriters) {
+                results.add(pool.submit(() -> {
+                    start.await();
+                    List<Long> claimed = new ArrayList<>();
+                    List<LoanApplication> batch;
+                    while (!(batch = underwritingService.claim(underwriter, 3, now)).isEmpty()) {
+                        batch.forEach(a -> claimed.add(a.getId()));
+                    }
+                    return claimed;
+                }));
+            }
+            start.countDown();
+        }
+        List<Long> all = new ArrayList<>();
+        for (Future<List<Long>> result : results) {
+            all.addAll(result.get());
+        }
+        assertThat(all).doesNotHaveDuplicates().containsAll(mine);
+        assertThat(underwritingService.claim(underwriters.get(0), 3, now)).isEmpty();
+
+        // Once the leases run out the same applications can be claimed again
+        Long latecomer = fixtures.customer("queue-underwriter-late@test.com", Role.UNDERWRITER).getId();
+        Instant afterExpiry = now.plus(LEASE).plusSeconds(1);
+        Set<Long> reclaimed = new HashSet<>();
+        List<LoanApplication> batch;
+        while (!(batch = underwritingService.claim(latecomer, 20, afterExpiry)).isEmpty()) {
+            batch.forEach(a -> reclaimed.add(a.getId()));
+        }
+        assertThat(reclaimed).containsAll(mine);
+        assertThat(applicationRepository.findById(mine.get(0)).orElseThrow().getClaimedBy()).contains(latecomer);
+    }
+
+    @Test
+    void decisions_and_releases_are_refused_while_another_underwriter_holds_the_lease() throws Exception {
+        Customer applicant = fixtures.customer("queue-lease-applicant@test.com");
+        Long holder = fixtures.customer("queue-lease-holder@test.com", Role.UNDERWRITER).getId();
+        Long applicationId = fixtures.application(applicant).getId();
+        transactionTemplate.executeWithoutResult(s ->
+                applicationRepository.lease(List.of(applicationId), holder, Instant.now().plus(LEASE)));
+
+        String token = fixtures.login(mockMvc, "underwriter@loan.local");
+        String decision = objectMapper.writeValueAsString(Map.of("decision", "APPROVED", "reason", "Looks fine"));
+
+        mockMvc.perform(post("/api/underwriting/applications/" + applicationId + "/decision")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(decision))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(delete("/api/underwriting/applications/claims/" + applicationId)
+                        .header("Authorization", "Bearer " + token))
+                .andExpect(status().isForbidden());
+
+        underwritingService.release(applicationId, holder);
+
+        mockMvc.perform(post("/api/underwriting/applications/" + applicationId + "/decision")
+                        .header("Authorization", "Bearer " + token)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(decision))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void queue_pages_follow_the_cursor_oldest_first() throws Exception {
+        Customer applicant = fixtures.customer("queue-browse-applicant@test.com");
+        List<Long> mine = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            mine.add(fixtures.application(applicant).getId());
+        }
+
+        String token = fixtures.login(mockMvc, "underwriter@loan.local");
+        List<JsonNode> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = get("/api/underwriting/applications/queue").param("size", "2")
+                    .header("Authorization", "Bearer " + token);
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("content").forEach(seen::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(seen).extracting(a -> a.get("applicationId").asLong()).doesNotHaveDuplicates()
+                .containsSubsequence(mine);
+        assertThat(seen).extracting(a -> Instant.parse(a.get("submittedAt").asText())).isSorted();
+    }
+
+    @Test
+    void claim_query_can_use_the_partial_queue_index() {
+        List<String> plan = transactionTemplate.execute(s -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return jdbcTemplate.queryForList("""
+                    EXPLAIN SELECT id FROM loan_application
+                    WHERE status = 'SUBMITTED' AND (lease_expires_at IS NULL OR lease_expires_at <= now())
+                    ORDER BY submitted_at, id LIMIT 5 FOR UPDATE SKIP LOCKED""", String.class);
+        });
+
+        assertThat(String.join("\n", plan)).contains("idx_loan_application_queue").doesNotContain("Sort");
+    }
+}
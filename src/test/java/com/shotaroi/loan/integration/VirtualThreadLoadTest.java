@@ -0,0 +1,176 @@
+package com.shotaroi.loan.integration;
+
+import com.shotaroi.loan.LoanManagementApplication;
+import com.shotaroi.loan.common.Role;
+import com.shotaroi.loan.customer.Customer;
+import com.shotaroi.loan.customer.CustomerRepository;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanService;
+import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.security.JwtTokenProvider;
+import com.shotaroi.loan.underwriting.LoanApplication;
+import com.shotaroi.loan.underwriting.UnderwritingService;
+import jdk.jfr.consumer.RecordingStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput and latency of blocking JDBC endpoints at high concurrency, platform-thread Tomcat versus
+ * virtual threads. Opt-in because it runs for a while:
+ * {@code mvn test -Dtest=VirtualThreadLoadTest -Dloadtest=true [-Dloadtest.concurrency=400 -Dloadtest.seconds=15]}.
+ * Each mode boots the application on a random port; {@code concurrency} clients loop over the schedule
+ * and payment-list endpoints of one loan. Also counts JFR {@code jdk.VirtualThreadPinned} events.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class VirtualThreadLoadTest {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadLoadTest.class);
+
+    private static final int CONCURRENCY = Integer.getInteger("loadtest.concurrency", 400);
+    private static final Duration WARMUP = Duration.ofSeconds(Long.getLong("loadtest.warmup-seconds", 5));
+    private static final Duration MEASURE = Duration.ofSeconds(Long.getLong("loadtest.seconds", 15));
+
+    @Test
+    void platform_and_virtual_threads_under_load() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        log.info("Load test: {} concurrent clients, {}s measured", CONCURRENCY, MEASURE.toSeconds());
+        log.info("  {}", platform);
+        log.info("  {}", virtual);
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        String mode = virtualThreads ? "virtual" : "platform";
+        try (ConfigurableApplicationContext app = new SpringApplicationBuilder(LoanManagementApplication.class)
+                // As arguments, so they win over application.yml (which activates the dev profile)
+                .run("--spring.profiles.active=test", "--server.port=0", "--management.server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads)) {
+            int port = app.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+            Customer customer = app.getBean(CustomerRepository.class)
+                    .save(new Customer("loadtest-" + mode + "@test.com", "not-a-real-hash", Role.USER));
+            Loan loan = createLoanWithPayments(app, customer);
+            String token = app.getBean(JwtTokenProvider.class)
+                    .createToken(customer.getId(), customer.getEmail(), Role.USER);
+
+            List<HttpRequest> requests = List.of(
+                    get(port, "/api/loans/" + loan.getId() + "/schedule?size=20", token),
+                    get(port, "/api/loans/" + loan.getId() + "/payments", token));
+
+            try (RecordingStream pinning = new RecordingStream();
+                 ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                AtomicLong pinnedEvents = new AtomicLong();
+                pinning.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ofMillis(1));
+                pinning.onEvent("jdk.VirtualThreadPinned", e -> pinnedEvents.incrementAndGet());
+                pinning.startAsync();
+
+                HttpClient http = HttpClient.newBuilder()
+                        .version(HttpClient.Version.HTTP_1_1)
+                        .executor(clients)
+                        .build();
+                long measureFrom = System.nanoTime() + WARMUP.toNanos();
+                long measureUntil = measureFrom + MEASURE.toNanos();
+
+                List<Future<long[]>> workers = new ArrayList<>();
+                for (int i = 0; i < CONCURRENCY; i++) {
+                    int offset = i;
+                    workers.add(clients.submit(() -> drive(http, requests, offset, measureFrom, measureUntil)));
+                }
+                List<long[]> samples = new ArrayList<>();
+                for (Future<long[]> worker : workers) {
+                    samples.add(worker.get());
+                }
+                return Result.of(mode, samples, pinnedEvents.get());
+            }
+        }
+    }
+
+    /** Loops until the window closes; returns measured latencies (ns), with errors as negative values. */
+    private static long[] drive(HttpClient http, List<HttpRequest> requests, int offset,
+                                long measureFrom, long measureUntil) throws Exception {
+        long[] latencies = new long[1024];
+        int count = 0;
+        for (int i = offset; System.nanoTime() < measureUntil; i++) {
+            long start = System.nanoTime();
+            int status = http.send(requests.get(i % requests.size()), HttpResponse.BodyHandlers.discarding())
+                    .statusCode();
+            long elapsed = System.nanoTime() - start;
+            if (start >= measureFrom) {
+                if (count == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, count * 2);
+                }
+                latencies[count++] = status == 200 ? elapsed : -elapsed;
+            }
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static Loan createLoanWithPayments(ConfigurableApplicationContext app, Customer customer) {
+        UnderwritingService underwriting = app.getBean(UnderwritingService.class);
+        LoanApplication application = underwriting.createApplication(
+                customer.getId(), new BigDecimal("120000.00"), "SEK", 60, new BigDecimal("0.05"));
+        underwriting.decide(application.getId(), LoanApplication.ApplicationStatus.APPROVED, "Load test");
+        Loan loan = app.getBean(LoanService.class)
+                .createFromApplication(application.getId(), LocalDate.of(2025, 1, 1), customer.getId());
+        PaymentService payments = app.getBean(PaymentService.class);
+        for (int i = 0; i < 10; i++) {
+            payments.postPayment(loan.getId(), customer.getId(), new BigDecimal("500.00"), "SEK",
+                    LocalDate.of(2025, 2, 1).plusMonths(i), null);
+        }
+        return loan;
+    }
+
+    private static HttpRequest get(int port, String path, String token) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Authorization", "Bearer " + token)
+                .GET()
+                .build();
+    }
+
+    private record Result(String mode, long requests, long errors, double throughput,
+                          double p50Millis, double p99Millis, long pinnedEvents) {
+
+        static Result of(String mode, List<long[]> samples, long pinnedEvents) {
+            long[] all = samples.stream().flatMapToLong(Arrays::stream).map(Math::abs).sorted().toArray();
+            long errors = samples.stream().flatMapToLong(Arrays::stream).filter(l -> l < 0).count();
+            return new Result(mode, all.length, errors, all.length / (double) MEASURE.toSeconds(),
+                    percentile(all, 0.50), percentile(all, 0.99), pinnedEvents);
+        }
+
+        private static double percentile(long[] sorted, double p) {
+            if (sorted.length == 0) {
+                return Double.NaN;
+            }
+            return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1e6;
+        }
+
+        @Override
+        public String toString() {
+            return "%-8s %,8.0f req/s  p50 %7.2f ms  p99 %7.2f ms  requests %,d  errors %d  pinned>1ms %d"
+                    .formatted(mode, throughput, p50Millis, p99Millis, requests, errors, pinnedEvents);
+        }
+    }
+}
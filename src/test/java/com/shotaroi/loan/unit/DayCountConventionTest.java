@@ -0,0 +1,45 @@
+package com.shotaroi.loan.unit;
+
+import com.shotaroi.loan.loan.DayCountConvention;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DayCountConventionTest {
+
+    @Test
+    void act_365_counts_calendar_days_over_365() {
+        assertThat(DayCountConvention.ACT_365.yearFraction(LocalDate.of(2025, 1, 30), LocalDate.of(2025, 1, 31)))
+                .isEqualByComparingTo(BigDecimal.ONE.divide(BigDecimal.valueOf(365), 10, RoundingMode.HALF_UP));
+        // Leap day included
+        assertThat(DayCountConvention.ACT_365.yearFraction(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1)))
+                .isEqualByComparingTo(new BigDecimal("366").divide(BigDecimal.valueOf(365), 10, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void thirty_360_treats_every_month_as_thirty_days() {
+        var convention = DayCountConvention.THIRTY_360;
+        assertThat(convention.yearFraction(LocalDate.of(2025, 1, 30), LocalDate.of(2025, 1, 31)))
+                .isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(convention.yearFraction(LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 1)))
+                .isEqualByComparingTo(new BigDecimal("3").divide(BigDecimal.valueOf(360), 10, RoundingMode.HALF_UP));
+        assertThat(convention.yearFraction(LocalDate.of(2024, 12, 31), LocalDate.of(2025, 1, 1)))
+                .isEqualByComparingTo(BigDecimal.ONE.divide(BigDecimal.valueOf(360), 10, RoundingMode.HALF_UP));
+    }
+
+    @Test
+    void thirty_360_daily_fractions_add_up_to_a_twelfth_per_month() {
+        for (LocalDate month = LocalDate.of(2024, 1, 1); month.getYear() < 2026; month = month.plusMonths(1)) {
+            int days = 0;
+            for (LocalDate d = month; d.isBefore(month.plusMonths(1)); d = d.plusDays(1)) {
+                days += DayCountConvention.THIRTY_360.yearFraction(d, d.plusDays(1))
+                        .multiply(BigDecimal.valueOf(360)).setScale(0, RoundingMode.HALF_UP).intValueExact();
+            }
+            assertThat(days).as("30/360 days in %s", month).isEqualTo(30);
+        }
+    }
+}
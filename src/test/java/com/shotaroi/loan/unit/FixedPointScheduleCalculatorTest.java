@@ -0,0 +1,64 @@
+package com.shotaroi.loan.unit;
+
+import com.shotaroi.loan.schedule.FixedPointScheduleCalculator;
+import com.shotaroi.loan.schedule.ScheduleCalculator;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixedPointScheduleCalculatorTest {
+
+    @Test
+    void randomized_corpus_matches_big_decimal_calculator_exactly() {
+        Random random = new Random(20250101L);
+
+        for (int n = 0; n < 10_000; n++) {
+            long cents = (long) Math.pow(10, 2 + random.nextDouble() * 10) + random.nextInt(100);
+            BigDecimal principal = BigDecimal.valueOf(cents, 2);
+            BigDecimal annualRate = random.nextInt(20) == 0
+                    ? BigDecimal.ZERO
+                    : BigDecimal.valueOf(random.nextInt(50_000_001), 8);
+            int termMonths = 3 + random.nextInt(358);
+            LocalDate startDate = LocalDate.of(2020, 1, 1).plusDays(random.nextInt(3650));
+
+            assertSameSchedule(principal, annualRate, termMonths, startDate);
+        }
+    }
+
+    @Test
+    void boundary_terms_and_rates_match_big_decimal_calculator() {
+        List<String> principals = List.of("1.00", "1.99", "100", "33333.33", "999999999.99");
+        List<String> rates = List.of("0", "0.00000001", "0.05", "0.075", "0.12345678", "0.50");
+        LocalDate startDate = LocalDate.of(2025, 1, 31);
+
+        for (String principal : principals) {
+            for (String rate : rates) {
+                for (int termMonths = 3; termMonths <= 360; termMonths++) {
+                    assertSameSchedule(new BigDecimal(principal), new BigDecimal(rate), termMonths, startDate);
+                }
+            }
+        }
+    }
+
+    @Test
+    void principal_with_more_than_two_decimals_falls_back_to_big_decimal_delta_adjustment() {
+        assertSameSchedule(new BigDecimal("10000.005"), new BigDecimal("0.05"), 12, LocalDate.of(2025, 1, 1));
+        assertSameSchedule(new BigDecimal("10000.004"), BigDecimal.ZERO, 7, LocalDate.of(2025, 1, 1));
+    }
+
+    private void assertSameSchedule(BigDecimal principal, BigDecimal annualRate, int termMonths, LocalDate startDate) {
+        List<ScheduleCalculator.ScheduleInstallment> expected = ScheduleCalculator.generateSchedule(
+                principal, annualRate, termMonths, startDate);
+        List<ScheduleCalculator.ScheduleInstallment> actual = FixedPointScheduleCalculator.generateSchedule(
+                principal, annualRate, termMonths, startDate);
+
+        assertThat(actual)
+                .as("principal=%s rate=%s term=%d start=%s", principal, annualRate, termMonths, startDate)
+                .isEqualTo(expected);
+    }
+}
@@ -1,26 +1,38 @@
 package com.shotaroi.loan.unit;
 
+import com.shotaroi.loan.common.exception.ValidationException;
 import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanHeaderCache;
 import com.shotaroi.loan.loan.LoanRepository;
 import com.shotaroi.loan.payment.Payment;
+import com.shotaroi.loan.payment.PaymentIdempotencyCache;
 import com.shotaroi.loan.payment.PaymentRepository;
 import com.shotaroi.loan.payment.PaymentService;
+import com.shotaroi.loan.schedule.LoanScheduleSummaryRepository;
+import com.shotaroi.loan.schedule.PrepaymentMode;
 import com.shotaroi.loan.schedule.RepaymentSchedule;
 import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
 import com.shotaroi.loan.schedule.ScheduleCalculator;
+import com.shotaroi.loan.schedule.ScheduleEngine;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -33,6 +45,10 @@ class PaymentAllocationTest {
     private LoanRepository loanRepository;
     @Mock
     private RepaymentScheduleRepository scheduleRepository;
+    @Mock
+    private LoanScheduleSummaryRepository summaryRepository;
+    @Mock
+    private LoanHeaderCache loanHeaderCache;
 
     private PaymentService paymentService;
 
@@ -41,7 +57,9 @@ class PaymentAllocationTest {
 
     @BeforeEach
     void setUp() {
-        paymentService = new PaymentService(paymentRepository, loanRepository, scheduleRepository);
+        paymentService = new PaymentService(paymentRepository, loanRepository, scheduleRepository, summaryRepository,
+                new PaymentIdempotencyCache(100, Duration.ofMinutes(5)), loanHeaderCache, ScheduleEngine.BIG_DECIMAL,
+                new SimpleMeterRegistry());
 
         loan = new Loan(1L, 1L, new BigDecimal("12000.00"), "SEK", 12,
                 new BigDecimal("0.12"), LocalDate.of(2025, 1, 1), LocalDate.of(2026, 1, 1));
@@ -60,8 +78,8 @@ class PaymentAllocationTest {
 
     @Test
     void payment_pays_interest_first_then_principal() {
-        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
-        when(scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(1L)).thenReturn(installments);
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream());
         when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> {
             Payment p = inv.getArgument(0);
             return new Payment(p.getLoanId(), p.getAmount(), p.getCurrency(), p.getPaymentDate(),
@@ -86,8 +104,8 @@ class PaymentAllocationTest {
 
     @Test
     void multiple_payments_mark_installments_paid_in_order() {
-        when(loanRepository.findById(1L)).thenReturn(Optional.of(loan));
-        when(scheduleRepository.findByLoanIdOrderByInstallmentNumberAsc(1L)).thenReturn(installments);
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream());
         when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> {
             Payment p = inv.getArgument(0);
             return new Payment(p.getLoanId(), p.getAmount(), p.getCurrency(), p.getPaymentDate(),
@@ -110,4 +128,154 @@ class PaymentAllocationTest {
         assertThat(installments.get(0).getStatus()).isEqualTo(RepaymentSchedule.InstallmentStatus.PAID);
         assertThat(installments.get(1).getStatus()).isEqualTo(RepaymentSchedule.InstallmentStatus.DUE);
     }
+
+    @Test
+    void allocation_stops_reading_installments_once_payment_is_consumed() {
+        installments.get(0).setAmountPaid(installments.get(0).getTotalDue());
+        installments.get(0).setStatus(RepaymentSchedule.InstallmentStatus.PAID);
+        AtomicInteger read = new AtomicInteger();
+        AtomicBoolean closed = new AtomicBoolean();
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream()
+                .peek(s -> read.incrementAndGet())
+                .onClose(() -> closed.set(true)));
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(scheduleRepository.save(any(RepaymentSchedule.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        paymentService.postPayment(1L, 1L, installments.get(1).getTotalDue(), "SEK",
+                LocalDate.of(2025, 3, 1), "ref2");
+
+        assertThat(installments.get(1).getStatus()).isEqualTo(RepaymentSchedule.InstallmentStatus.PAID);
+        // The paid installment plus the next open one, read for the summary's next due date
+        assertThat(read).hasValue(2);
+        assertThat(closed).isTrue();
+    }
+
+    @Test
+    void retry_with_same_idempotency_key_replays_without_locking_or_allocating() {
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream());
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(scheduleRepository.save(any(RepaymentSchedule.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var first = paymentService.postPayment(1L, 1L, new BigDecimal("500.00"), "SEK",
+                LocalDate.of(2025, 2, 1), "ref1", "key-1");
+        var retry = paymentService.postPayment(1L, 1L, new BigDecimal("500.00"), "SEK",
+                LocalDate.of(2025, 2, 1), "ref1", "key-1");
+
+        assertThat(first.replayed()).isFalse();
+        assertThat(retry.replayed()).isTrue();
+        assertThat(retry.allocatedToInterest()).isEqualTo(first.allocatedToInterest());
+        assertThat(retry.newOutstandingPrincipal()).isEqualTo(first.newOutstandingPrincipal());
+        verify(loanRepository, times(1)).findByIdForUpdate(1L);
+        verify(scheduleRepository, times(1)).streamUnpaidByLoanId(1L);
+        verify(paymentRepository, times(1)).save(any(Payment.class));
+    }
+
+    @Test
+    void reused_idempotency_key_with_another_payment_date_is_rejected() {
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream());
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(scheduleRepository.save(any(RepaymentSchedule.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        paymentService.postPayment(1L, 1L, new BigDecimal("500.00"), "SEK", LocalDate.of(2025, 2, 1),
+                "INV-7", "key-1");
+
+        assertThatThrownBy(() -> paymentService.postPayment(1L, 1L, new BigDecimal("500.00"), "SEK",
+                LocalDate.of(2025, 3, 1), "INV-7", "key-1"))
+                .isInstanceOf(ValidationException.class);
+        verify(paymentRepository, times(1)).save(any(Payment.class));
+    }
+
+    @Test
+    void prepayment_reducing_the_term_reamortizes_and_deletes_the_tail() {
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream());
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(scheduleRepository.save(any(RepaymentSchedule.class))).thenAnswer(inv -> inv.getArgument(0));
+        BigDecimal before = installments.stream()
+                .map(RepaymentSchedule::getTotalDue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        // The first installment (due 2025-02-01) plus 3000.00 of principal
+        BigDecimal amount = installments.get(0).getTotalDue().add(new BigDecimal("3000.00"));
+        var result = paymentService.postPayment(1L, 1L, amount, "SEK", LocalDate.of(2025, 2, 1), "ref1", "ref1",
+                PrepaymentMode.REDUCE_TERM);
+
+        BigDecimal outstanding = new BigDecimal("12000.00")
+                .subtract(installments.get(0).getPrincipalDue())
+                .subtract(new BigDecimal("3000.00"));
+        assertThat(result.newOutstandingPrincipal()).isEqualByComparingTo(outstanding);
+        assertThat(installments.get(0).getStatus()).isEqualTo(RepaymentSchedule.InstallmentStatus.PAID);
+
+        // Same installment amount, so 11 remaining months shrink to 8 and the last three rows go
+        List<RepaymentSchedule> kept = installments.subList(1, 9);
+        assertThat(kept.stream().map(RepaymentSchedule::getPrincipalDue).reduce(BigDecimal.ZERO, BigDecimal::add))
+                .isEqualByComparingTo(outstanding);
+        assertThat(kept.get(0).getDueDate()).isEqualTo(LocalDate.of(2025, 3, 1));
+        assertThat(kept.get(0).getTotalDue()).isLessThanOrEqualTo(installments.get(0).getTotalDue());
+        assertThat(loan.getEndDate()).isEqualTo(LocalDate.of(2025, 10, 1));
+        verify(scheduleRepository).deleteAllInBatch(List.of(installments.get(9), installments.get(10),
+                installments.get(11)));
+
+        BigDecimal after = kept.stream().map(RepaymentSchedule::getTotalDue).reduce(BigDecimal.ZERO, BigDecimal::add);
+        ArgumentCaptor<BigDecimal> released = ArgumentCaptor.forClass(BigDecimal.class);
+        verify(summaryRepository).applyPayment(eq(1L), any(), any(), eq(1), eq(0), released.capture(), eq(3),
+                eq(LocalDate.of(2025, 3, 1)));
+        assertThat(released.getValue()).isEqualByComparingTo(
+                before.subtract(installments.get(0).getTotalDue()).subtract(after));
+    }
+
+    @Test
+    void prepayment_reducing_the_installment_keeps_the_end_date() {
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream());
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(scheduleRepository.save(any(RepaymentSchedule.class))).thenAnswer(inv -> inv.getArgument(0));
+        BigDecimal previousInstallment = installments.get(1).getTotalDue();
+
+        // Paid before the first due date: nothing is due yet, so all of it is principal
+        var result = paymentService.postPayment(1L, 1L, new BigDecimal("6000.00"), "SEK",
+                LocalDate.of(2025, 1, 15), "ref1", "ref1", PrepaymentMode.REDUCE_INSTALLMENT);
+
+        assertThat(result.allocatedToInterest()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(result.newOutstandingPrincipal()).isEqualByComparingTo(new BigDecimal("6000.00"));
+        assertThat(installments).allSatisfy(s -> assertThat(s.getStatus())
+                .isEqualTo(RepaymentSchedule.InstallmentStatus.DUE));
+        assertThat(installments.get(0).getDueDate()).isEqualTo(LocalDate.of(2025, 2, 1));
+        assertThat(installments.get(11).getDueDate()).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(installments.get(1).getTotalDue()).isLessThan(previousInstallment);
+        assertThat(loan.getEndDate()).isEqualTo(LocalDate.of(2026, 1, 1));
+        verify(scheduleRepository, never()).deleteAllInBatch(anyIterable());
+        verify(summaryRepository).applyPayment(eq(1L), any(), any(), eq(0), eq(0), any(), eq(0),
+                eq(LocalDate.of(2025, 2, 1)));
+    }
+
+    @Test
+    void prepaying_the_whole_balance_closes_the_loan_and_removes_open_installments() {
+        when(loanRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(loan));
+        when(scheduleRepository.streamUnpaidByLoanId(1L)).thenAnswer(inv -> unpaid().stream());
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(loanRepository.save(any(Loan.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        var result = paymentService.postPayment(1L, 1L, new BigDecimal("12000.00"), "SEK",
+                LocalDate.of(2025, 1, 15), "ref1", "ref1", PrepaymentMode.REDUCE_TERM);
+
+        assertThat(result.newOutstandingPrincipal()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(loan.getStatus()).isEqualTo(Loan.LoanStatus.CLOSED);
+        verify(scheduleRepository).deleteAllInBatch(installments);
+        verify(summaryRepository).applyPayment(eq(1L), any(), any(), eq(0), eq(0), any(), eq(12), isNull());
+    }
+
+    private List<RepaymentSchedule> unpaid() {
+        return installments.stream()
+                .filter(s -> s.getStatus() != RepaymentSchedule.InstallmentStatus.PAID)
+                .toList();
+    }
 }
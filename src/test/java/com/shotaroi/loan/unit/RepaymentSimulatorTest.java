@@ -0,0 +1,144 @@
+package com.shotaroi.loan.unit;
+
+import com.shotaroi.loan.common.exception.ForbiddenException;
+import com.shotaroi.loan.common.exception.ValidationException;
+import com.shotaroi.loan.loan.Loan;
+import com.shotaroi.loan.loan.LoanHeaderCache;
+import com.shotaroi.loan.payment.RepaymentSimulator;
+import com.shotaroi.loan.schedule.OpenInstallment;
+import com.shotaroi.loan.schedule.PrepaymentMode;
+import com.shotaroi.loan.schedule.RepaymentScheduleRepository;
+import com.shotaroi.loan.schedule.ScheduleCalculator;
+import com.shotaroi.loan.schedule.ScheduleEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RepaymentSimulatorTest {
+
+    private static final LocalDate START = LocalDate.of(2025, 1, 1);
+
+    @Mock
+    private LoanHeaderCache loanHeaderCache;
+    @Mock
+    private RepaymentScheduleRepository scheduleRepository;
+
+    private RepaymentSimulator simulator;
+    private List<ScheduleCalculator.ScheduleInstallment> schedule;
+
+    @BeforeEach
+    void setUp() {
+        simulator = new RepaymentSimulator(loanHeaderCache, scheduleRepository, ScheduleEngine.BIG_DECIMAL,
+                Runnable::run);
+        schedule = ScheduleCalculator.generateSchedule(new BigDecimal("12000.00"), new BigDecimal("0.12"), 12, START);
+
+        when(loanHeaderCache.get(1L)).thenReturn(new LoanHeaderCache.LoanHeader(1L, 1L, Loan.LoanStatus.ACTIVE,
+                new BigDecimal("12000.00"), "SEK", 12, new BigDecimal("0.12"), new BigDecimal("12000.00"),
+                BigDecimal.ZERO.setScale(2), START, START.plusMonths(12)));
+    }
+
+    @Test
+    void baseline_follows_the_live_schedule() {
+        stubOpenInstallments();
+
+        var simulation = simulator.simulate(1L, 1L, List.of(scenario("extra", "100.00", null, null, null)));
+
+        BigDecimal scheduledInterest = schedule.stream()
+                .map(ScheduleCalculator.ScheduleInstallment::interestDue)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        assertThat(simulation.baseline().payoffDate()).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(simulation.baseline().installments()).isEqualTo(12);
+        assertThat(simulation.baseline().totalInterest()).isEqualByComparingTo(scheduledInterest);
+    }
+
+    @Test
+    void extra_monthly_payments_shorten_the_term_and_save_interest() {
+        stubOpenInstallments();
+
+        var result = simulator.simulate(1L, 1L, List.of(scenario("extra", "1000.00", null, null, null)))
+                .scenarios().get(0);
+
+        assertThat(result.mode()).isEqualTo(PrepaymentMode.REDUCE_TERM);
+        assertThat(result.monthsSaved()).isGreaterThan(0);
+        assertThat(result.payoffDate()).isBefore(LocalDate.of(2026, 1, 1));
+        assertThat(result.interestSaved()).isPositive();
+    }
+
+    @Test
+    void lump_sum_with_reduced_installments_keeps_the_end_date() {
+        stubOpenInstallments();
+
+        var results = simulator.simulate(1L, 1L, List.of(
+                scenario("term", null, "5000.00", LocalDate.of(2025, 3, 15), PrepaymentMode.REDUCE_TERM),
+                scenario("installment", null, "5000.00", LocalDate.of(2025, 3, 15),
+                        PrepaymentMode.REDUCE_INSTALLMENT))).scenarios();
+
+        var reduceTerm = results.get(0);
+        var reduceInstallment = results.get(1);
+        assertThat(reduceInstallment.payoffDate()).isEqualTo(LocalDate.of(2026, 1, 1));
+        assertThat(reduceInstallment.interestSaved()).isPositive();
+        assertThat(reduceTerm.payoffDate()).isBefore(reduceInstallment.payoffDate());
+        // Paying the principal back sooner costs less interest than spreading it over the full term
+        assertThat(reduceTerm.interestSaved()).isGreaterThan(reduceInstallment.interestSaved());
+    }
+
+    @Test
+    void a_lump_sum_covering_the_balance_pays_off_at_the_next_due_date() {
+        stubOpenInstallments();
+
+        var result = simulator.simulate(1L, 1L,
+                List.of(scenario("payoff", null, "20000.00", START, null))).scenarios().get(0);
+
+        assertThat(result.payoffDate()).isEqualTo(schedule.get(0).dueDate());
+        assertThat(result.installments()).isEqualTo(1);
+        assertThat(result.totalInterest()).isEqualByComparingTo(schedule.get(0).interestDue());
+    }
+
+    @Test
+    void simulation_reads_installments_once_and_writes_nothing() {
+        stubOpenInstallments();
+
+        simulator.simulate(1L, 1L, List.of(
+                scenario("a", "100.00", null, null, null),
+                scenario("b", "500.00", null, null, PrepaymentMode.REDUCE_INSTALLMENT),
+                scenario("c", null, "3000.00", LocalDate.of(2025, 6, 1), null)));
+
+        verify(scheduleRepository).findOpenInstallments(1L);
+        verifyNoMoreInteractions(scheduleRepository);
+    }
+
+    @Test
+    void rejects_other_customers_and_incomplete_scenarios() {
+        assertThatThrownBy(() -> simulator.simulate(1L, 2L, List.of(scenario("x", "100.00", null, null, null))))
+                .isInstanceOf(ForbiddenException.class);
+        assertThatThrownBy(() -> simulator.simulate(1L, 1L, List.of(scenario("x", null, "100.00", null, null))))
+                .isInstanceOf(ValidationException.class);
+        verifyNoInteractions(scheduleRepository);
+    }
+
+    private void stubOpenInstallments() {
+        when(scheduleRepository.findOpenInstallments(1L)).thenReturn(schedule.stream()
+                .map(i -> new OpenInstallment(i.installmentNumber(), i.dueDate(), i.principalDue(), i.interestDue(),
+                        BigDecimal.ZERO.setScale(2)))
+                .toList());
+    }
+
+    private static RepaymentSimulator.Scenario scenario(String name, String extraMonthly, String lumpSum,
+                                                        LocalDate lumpSumDate, PrepaymentMode mode) {
+        return new RepaymentSimulator.Scenario(name,
+                extraMonthly == null ? null : new BigDecimal(extraMonthly),
+                lumpSum == null ? null : new BigDecimal(lumpSum),
+                lumpSumDate, mode);
+    }
+}
@@ -0,0 +1,79 @@
+package com.shotaroi.loan.unit;
+
+import com.shotaroi.loan.underwriting.LoanApplication;
+import com.shotaroi.loan.underwriting.UnderwritingRules;
+import com.shotaroi.loan.underwriting.UnderwritingRules.ApplicantFacts;
+import com.shotaroi.loan.underwriting.UnderwritingRules.ConditionDefinition;
+import com.shotaroi.loan.underwriting.UnderwritingRules.Definition;
+import com.shotaroi.loan.underwriting.UnderwritingRules.RuleDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UnderwritingRulesTest {
+
+    private static final UnderwritingRules RULES = UnderwritingRules.compile(new Definition("v1", List.of(
+            new RuleDefinition("reject-delinquent", "REJECTED", "Overdue",
+                    List.of(new ConditionDefinition("maxDaysPastDue", "gt", 30))),
+            new RuleDefinition("approve-small", "APPROVED", null, List.of(
+                    new ConditionDefinition("currency", "in", List.of("SEK", "EUR")),
+                    new ConditionDefinition("principal", "lte", 50000),
+                    new ConditionDefinition("annualInterestRate", "lt", 0.2))))));
+
+    @Test
+    void first_matching_rule_decides_and_the_trace_explains_every_rule_tried() {
+        var evaluation = RULES.evaluate(facts("20000", "0.05", "SEK", 0));
+
+        assertThat(evaluation.decision()).isEqualTo(LoanApplication.ApplicationStatus.APPROVED);
+        assertThat(evaluation.rule()).isEqualTo("approve-small");
+        assertThat(evaluation.reason()).isEqualTo("approve-small");
+        assertThat(evaluation.rulesVersion()).isEqualTo("v1");
+        assertThat(evaluation.trace()).extracting(UnderwritingRules.RuleTrace::matched).containsExactly(false, true);
+        var failed = evaluation.trace().get(0).conditions().get(0);
+        assertThat(failed.fact()).isEqualTo("maxDaysPastDue");
+        assertThat(failed.actual()).isEqualTo("0");
+        assertThat(failed.expected()).isEqualTo("30");
+    }
+
+    @Test
+    void earlier_rules_win_and_unmatched_applications_stay_manual() {
+        assertThat(RULES.evaluate(facts("20000", "0.05", "SEK", 45)).rule()).isEqualTo("reject-delinquent");
+
+        var manual = RULES.evaluate(facts("20000", "0.05", "USD", 0));
+        assertThat(manual.decided()).isFalse();
+        assertThat(manual.rule()).isNull();
+        // Evaluation of a rule stops at its first failing condition
+        assertThat(manual.trace().get(1).conditions()).hasSize(1);
+    }
+
+    @Test
+    void invalid_definitions_are_rejected_at_compile_time() {
+        assertThatThrownBy(() -> compile(new RuleDefinition("r", "APPROVED", null,
+                List.of(new ConditionDefinition("creditScore", "gt", 600)))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("unknown fact");
+        assertThatThrownBy(() -> compile(new RuleDefinition("r", "APPROVED", null,
+                List.of(new ConditionDefinition("principal", "in", List.of("1"))))))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("numeric");
+        assertThatThrownBy(() -> compile(new RuleDefinition("r", "APPROVED", null,
+                List.of(new ConditionDefinition("currency", "gt", "SEK")))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> compile(new RuleDefinition("r", "SUBMITTED", null, List.of())))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("APPROVED or REJECTED");
+        assertThatThrownBy(() -> compile(new RuleDefinition("r", "APPROVED", null, List.of()),
+                new RuleDefinition("r", "REJECTED", null, List.of())))
+                .isInstanceOf(IllegalArgumentException.class).hasMessageContaining("unique");
+    }
+
+    private static UnderwritingRules compile(RuleDefinition... rules) {
+        return UnderwritingRules.compile(new Definition("v", List.of(rules)));
+    }
+
+    private static ApplicantFacts facts(String principal, String rate, String currency, int maxDaysPastDue) {
+        return new ApplicantFacts(new BigDecimal(principal), 24, new BigDecimal(rate), currency,
+                BigDecimal.ZERO, maxDaysPastDue, 0);
+    }
+}
@@ -0,0 +1,59 @@
+package com.shotaroi.loan.unit;
+
+import com.shotaroi.loan.common.Role;
+import com.shotaroi.loan.security.JwtTokenProvider;
+import com.shotaroi.loan.security.SecurityUser;
+import com.shotaroi.loan.security.VerifiedTokenCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class VerifiedTokenCacheTest {
+
+    private static final String SECRET = "unit-test-secret-key-at-least-256-bits-long";
+
+    @Test
+    void verifies_each_token_once_and_serves_repeats_from_cache() {
+        JwtTokenProvider provider = spy(new JwtTokenProvider(SECRET, 60_000));
+        VerifiedTokenCache cache = new VerifiedTokenCache(provider, new SimpleMeterRegistry(), 100);
+        String token = provider.createToken(42L, "cached@test.com", Role.ADMIN);
+
+        SecurityUser first = cache.resolve(token).orElseThrow();
+        SecurityUser second = cache.resolve(token).orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.getId()).isEqualTo(42L);
+        assertThat(first.getUsername()).isEqualTo("cached@test.com");
+        assertThat(first.getRole()).isEqualTo(Role.ADMIN);
+        verify(provider, times(1)).verify(token);
+    }
+
+    @Test
+    void rejects_tampered_and_expired_tokens_without_caching_them() {
+        JwtTokenProvider provider = spy(new JwtTokenProvider(SECRET, 60_000));
+        VerifiedTokenCache cache = new VerifiedTokenCache(provider, new SimpleMeterRegistry(), 100);
+        String token = provider.createToken(7L, "tampered@test.com", Role.USER);
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+        String expired = new JwtTokenProvider(SECRET, -1_000).createToken(7L, "expired@test.com", Role.USER);
+
+        assertThat(cache.resolve(tampered)).isEmpty();
+        assertThat(cache.resolve(tampered)).isEmpty();
+        assertThat(cache.resolve(expired)).isEmpty();
+        verify(provider, times(3)).verify(anyString());
+    }
+
+    @Test
+    void cached_principal_expires_with_its_token() throws InterruptedException {
+        JwtTokenProvider provider = spy(new JwtTokenProvider(SECRET, 1_000));
+        VerifiedTokenCache cache = new VerifiedTokenCache(provider, new SimpleMeterRegistry(), 100);
+        String token = provider.createToken(9L, "short-lived@test.com", Role.USER);
+
+        assertThat(cache.resolve(token)).isPresent();
+        Thread.sleep(1_100);
+
+        assertThat(cache.resolve(token)).isEmpty();
+    }
+}